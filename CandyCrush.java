@@ -1,10 +1,59 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
 public class CandyCrush {
 
     /**
      * Construit une configuration initiale de plateau de jeu n x n.
      *
      * Pour chaque case, la fonction choisit aléatoirement un caractère
-     * parmi la liste de bonbons {'C', 'A', 'N', 'D', 'Y'}.
+     * parmi la liste de bonbons {'C', 'A', 'N', 'D', 'Y'}, en excluant d'avance
+     * ceux qui formeraient une série de 3 avec les cases déjà remplies (voir
+     * bonbonAutorise) : le plateau initial ne contient aucun motif. Il a aussi
+     * toujours au moins un coup jouable (voir garantirCoup), si n ≥ 3.
+     *
+     * Le tirage utilise le générateur propre au thread courant
+     * (ThreadLocalRandom) : voir construireJeux(n, alea) pour une partie
+     * reproductible.
      *
      * @param n taille du plateau (nombre de lignes et de colonnes).
      *
@@ -15,24 +64,262 @@ public class CandyCrush {
      * - Deux boucles imbriquées sur n lignes et n colonnes : O(n * n) = O(n²).
      */
     public static char[][] construireJeux(int n) {
-        char[] liste_candy = {'C', 'A', 'N', 'D', 'Y'};
-        char[][] plateau_jeux = new char[n][n]; // taille n x n pour le jeu
+        return construireJeux(n, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à construireJeux(n), avec un générateur aléatoire explicite :
+     * le même générateur (par exemple new SplittableRandom(graine)) donne
+     * toujours le même plateau.
+     *
+     * @param n    taille du plateau (nombre de lignes et de colonnes).
+     * @param alea générateur utilisé pour tirer les bonbons (non partagé entre threads).
+     *
+     * @return le plateau de jeu initial (char[n][n]).
+     *
+     * Complexité temporelle : O(n²).
+     */
+    public static char[][] construireJeux(int n, RandomGenerator alea) {
+        return construireDans(new char[n][n], alea); // taille n x n pour le jeu
+    }
+
+    /**
+     * Identique à construireJeux(n, alea), dans un plateau existant (réutilisé
+     * d'une partie à l'autre, voir HoteParties) : à générateur identique, le
+     * plateau obtenu est le même.
+     *
+     * @param plateau_jeux plateau char[n][n], entièrement réécrit.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    static char[][] construireDans(char[][] plateau_jeux, RandomGenerator alea) {
+        int n = plateau_jeux.length;
+        for (char[] ligne : plateau_jeux) {
+            Arrays.fill(ligne, (char) 0); // case non remplie pour bonbonAutorise
+        }
 
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) { // parcourt tous les indices du tableau
-                // choix d'un indice aléatoire entre 0 et liste_candy.length - 1
-                int random_index = (int)(Math.random() * liste_candy.length);
-                // affectation du caractère correspondant à cet indice
-                plateau_jeux[i][j] = liste_candy[random_index];
+                // tirage parmi les bonbons qui ne forment pas de série avec les cases déjà remplies
+                plateau_jeux[i][j] = bonbonAutorise(plateau_jeux, i, j, alea);
+            }
+        }
+        return garantirCoup(plateau_jeux, alea); // au moins un coup jouable
+    }
+
+    /**
+     * Remélange sur place un plateau bloqué (aucun coup jouable) :
+     * 1. mélange de Fisher-Yates des n² cases (les bonbons restent les mêmes) ;
+     * 2. réparation, ligne par ligne : une case qui termine une série de 3 avec
+     *    les deux cases à sa gauche ou au-dessus est retirée avec bonbonAutorise,
+     *    qui ne peut créer aucune série ;
+     * 3. si le plateau n'a toujours aucun coup, garantirCoup y place un motif jouable.
+     *
+     * @param jeux le plateau de jeu (char[n][n]), modifié sur place.
+     * @param alea générateur du mélange et des tirages.
+     *
+     * @return le même tableau 'jeux' : sans motif, sans case vide, et avec au
+     *         moins un coup jouable si n ≥ 3.
+     *
+     * Complexité temporelle : O(n²) (espérée pour garantirCoup).
+     */
+    public static char[][] remelanger(char[][] jeux, RandomGenerator alea) {
+        int n = jeux.length;
+        for (int k = n * n - 1; k > 0; k--) {
+            int r = alea.nextInt(k + 1);
+            char temporaire = jeux[k / n][k % n];
+            jeux[k / n][k % n] = jeux[r / n][r % n];
+            jeux[r / n][r % n] = temporaire;
+        }
+        // Les cases déjà parcourues ne changent plus : une série restante aurait
+        // été vue sur sa dernière case (à droite ou en bas).
+        for (int i = 0; i < n; i++) {
+            char[] ligne = jeux[i];
+            for (int j = 0; j < n; j++) {
+                char ch = ligne[j];
+                if ((j >= 2 && ligne[j - 1] == ch && ligne[j - 2] == ch)
+                    || (i >= 2 && jeux[i - 1][j] == ch && jeux[i - 2][j] == ch)) {
+                    ligne[j] = bonbonAutorise(jeux, i, j, alea);
+                }
+            }
+        }
+        return garantirCoup(jeux, alea);
+    }
+
+    /**
+     * Garantit au moins un coup jouable sur un plateau sans motif : s'il n'en a
+     * aucun (existeCoup), place en (r, c), (r, c+1) et (r+1, c+2) un même bonbon
+     * 'a', tirés au hasard ; permuter (r, c+2) et (r+1, c+2) forme alors a a a. Un
+     * placement qui formerait lui-même une série est annulé et retiré ; après
+     * 64 échecs (petit plateau très contraint), le plateau est retiré entièrement.
+     *
+     * @param jeux le plateau de jeu (char[n][n]), sans motif, modifié sur place.
+     * @param alea générateur des placements.
+     *
+     * @return le même tableau 'jeux', inchangé s'il avait déjà un coup jouable
+     *         ou si n < 3 (aucun coup possible).
+     *
+     * Complexité temporelle : O(n²) pour existeCoup, plus O(1) par placement essayé.
+     */
+    static char[][] garantirCoup(char[][] jeux, RandomGenerator alea) {
+        int n = jeux.length;
+        if (n < 3) {
+            return jeux;
+        }
+        for (int essai = 0; !existeCoup(jeux); essai++) {
+            if (essai == 64) {
+                for (char[] ligne : jeux) {
+                    Arrays.fill(ligne, (char) 0); // case non remplie pour bonbonAutorise
+                }
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        jeux[i][j] = bonbonAutorise(jeux, i, j, alea);
+                    }
+                }
+                essai = 0;
+                continue;
+            }
+            int r = alea.nextInt(n - 1), c = alea.nextInt(n - 2);
+            char a = PlateauBits.BONBONS[alea.nextInt(PlateauBits.BONBONS.length)];
+            char ancien1 = jeux[r][c], ancien2 = jeux[r][c + 1], ancien3 = jeux[r + 1][c + 2];
+            jeux[r][c] = a;
+            jeux[r][c + 1] = a;
+            jeux[r + 1][c + 2] = a;
+            if (dansSerie(jeux, r, c) || dansSerie(jeux, r, c + 1) || dansSerie(jeux, r + 1, c + 2)) {
+                jeux[r][c] = ancien1;
+                jeux[r][c + 1] = ancien2;
+                jeux[r + 1][c + 2] = ancien3;
+            }
+        }
+        return jeux;
+    }
+
+    /**
+     * Indique si la case (l, c) appartient à une série d'au moins 3 bonbons
+     * identiques sur sa ligne ou sa colonne.
+     *
+     * Complexité temporelle : O(1) (au plus 2 cases lues dans chaque direction).
+     */
+    private static boolean dansSerie(char[][] jeux, int l, int c) {
+        int n = jeux.length;
+        char a = jeux[l][c];
+        int horizontal = 1, vertical = 1;
+        for (int j = c - 1; j >= Math.max(0, c - 2) && jeux[l][j] == a; j--) horizontal++;
+        for (int j = c + 1; j <= Math.min(n - 1, c + 2) && jeux[l][j] == a; j++) horizontal++;
+        for (int i = l - 1; i >= Math.max(0, l - 2) && jeux[i][c] == a; i--) vertical++;
+        for (int i = l + 1; i <= Math.min(n - 1, l + 2) && jeux[i][c] == a; i++) vertical++;
+        return horizontal >= 3 || vertical >= 3;
+    }
+
+    /**
+     * Plateau tiré sans contrainte : même tirage que bonbonAutorise, mais sans
+     * aucun bonbon interdit (tirerDansEnsemble sur tous les bonbons). Le plateau
+     * contient donc des motifs, contrairement à construireJeux : c'est voulu, le
+     * banc d'essai mesure rechercheMotif, chute et remplissage sur un plateau qui
+     * a des bonbons à supprimer.
+     *
+     * @param n    taille du plateau.
+     * @param alea générateur utilisé pour tirer les bonbons.
+     *
+     * @return un plateau char[n][n] tiré au hasard.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    public static char[][] plateauAleatoire(int n, RandomGenerator alea) {
+        char[][] plateau = new char[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                plateau[i][j] = PlateauBits.BONBONS[tirerDansEnsemble(TOUS_BONBONS, alea)];
+            }
+        }
+        return plateau;
+    }
+
+    /**
+     * Bit de chaque bonbon dans un ensemble de bonbons (bit t pour
+     * PlateauBits.BONBONS[t]) ; 0 pour '-' et tout autre caractère.
+     */
+    private static final int[] BIT_BONBON = new int[128];
+    static {
+        for (int t = 0; t < PlateauBits.BONBONS.length; t++) {
+            BIT_BONBON[PlateauBits.BONBONS[t]] = 1 << t;
+        }
+    }
+
+    /** Tous les bonbons : {'C', 'A', 'N', 'D', 'Y'}. */
+    private static final int TOUS_BONBONS = (1 << PlateauBits.BONBONS.length) - 1;
+
+    /** Bit du caractère ch (voir BIT_BONBON). Complexité temporelle : O(1). */
+    private static int bitBonbon(char ch) {
+        return (ch < BIT_BONBON.length) ? BIT_BONBON[ch] : 0;
+    }
+
+    /**
+     * Tire en une seule fois un bonbon pour la case (i, j) parmi ceux qui ne
+     * forment aucune série de 3 passant par cette case, avec les cases voisines
+     * déjà remplies : deux à gauche, deux à droite, une de chaque côté, et de même
+     * sur la colonne. Les cases vides ('-') ou non encore remplies (caractère 0)
+     * ne forment pas de série.
+     *
+     * Chaque direction n'interdit qu'au plus 2 bonbons (ceux des deux cases qui
+     * touchent (i, j)) : il en reste toujours un, tiré uniformément.
+     *
+     * @param jeux plateau en cours de remplissage (char[n][n]), non modifié.
+     * @param i    ligne de la case à remplir.
+     * @param j    colonne de la case à remplir.
+     * @param alea générateur (un seul tirage par case).
+     *
+     * @return le bonbon tiré.
+     *
+     * Complexité temporelle : O(1).
+     */
+    static char bonbonAutorise(char[][] jeux, int i, int j, RandomGenerator alea) {
+        int n = jeux.length;
+        char[] ligne = jeux[i];
+        char g1 = (j >= 1) ? ligne[j - 1] : 0, g2 = (j >= 2) ? ligne[j - 2] : 0;
+        char d1 = (j + 1 < n) ? ligne[j + 1] : 0, d2 = (j + 2 < n) ? ligne[j + 2] : 0;
+        char h1 = (i >= 1) ? jeux[i - 1][j] : 0, h2 = (i >= 2) ? jeux[i - 2][j] : 0;
+        char b1 = (i + 1 < n) ? jeux[i + 1][j] : 0, b2 = (i + 2 < n) ? jeux[i + 2][j] : 0;
+
+        int interdits = 0;
+        if (g1 == g2) interdits |= bitBonbon(g1);
+        if (d1 == d2) interdits |= bitBonbon(d1);
+        if (g1 == d1) interdits |= bitBonbon(g1);
+        if (h1 == h2) interdits |= bitBonbon(h1);
+        if (b1 == b2) interdits |= bitBonbon(b1);
+        if (h1 == b1) interdits |= bitBonbon(h1);
+
+        return PlateauBits.BONBONS[tirerDansEnsemble(TOUS_BONBONS & ~interdits, alea)];
+    }
+
+    /**
+     * Tire uniformément un élément (numéro de bit) d'un ensemble non vide de bits.
+     *
+     * Complexité temporelle : O(1) (ensemble de 5 bits au plus).
+     */
+    static int tirerDansEnsemble(int ensemble, RandomGenerator alea) {
+        return ELEMENT_ENSEMBLE[ensemble][alea.nextInt(ELEMENT_ENSEMBLE[ensemble].length)];
+    }
+
+    /** ELEMENT_ENSEMBLE[e] : numéros des bits de l'ensemble e (0..31), dans l'ordre. */
+    private static final byte[][] ELEMENT_ENSEMBLE = new byte[TOUS_BONBONS + 1][];
+    static {
+        for (int e = 0; e <= TOUS_BONBONS; e++) {
+            ELEMENT_ENSEMBLE[e] = new byte[Integer.bitCount(e)];
+            for (int b = 0, rang = 0; b < PlateauBits.BONBONS.length; b++) {
+                if ((e & (1 << b)) != 0) ELEMENT_ENSEMBLE[e][rang++] = (byte) b;
             }
         }
-        return plateau_jeux;
     }
 
     /**
      * Affiche dans le terminal le plateau de jeu sous forme de grille,
      * avec les indices de ligne et de colonne visibles.
      *
+     * La grille est d'abord construite en mémoire (dessinerJeux), puis écrite
+     * en une seule fois : une écriture par image au lieu d'une par case, ce qui
+     * compte sur les grands plateaux ou à travers une connexion SSH.
+     *
      * Hypothèse : le tableau est carré (même nombre de lignes et de colonnes).
      *
      * @param jeux le tableau 2D de caractères représentant le plateau de jeu.
@@ -42,37 +329,54 @@ public class CandyCrush {
      * - On parcourt toutes les cases du plateau une fois pour les afficher : O(n²).
      */
     public static void afficherJeux(char[][] jeux) {
+        StringBuilder image = new StringBuilder(4 * (jeux.length + 4) * (jeux.length + 4));
+        dessinerJeux(jeux, image);
+        Ecran.afficher(image);
+    }
+
+    /**
+     * Ajoute à 'image' le texte de la grille affichée par afficherJeux
+     * (même présentation que l'affichage case par case d'origine).
+     *
+     * @param jeux  le plateau de jeu (char[n][n]).
+     * @param image tampon auquel la grille est ajoutée.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    static void dessinerJeux(char[][] jeux, StringBuilder image) {
         int n = jeux.length;
+        String finLigne = System.lineSeparator();
 
         // Affichage des indices de colonnes (1..n pour coller à l’énoncé)
-        Ecran.afficher("    ");  // marge pour aligner avec les indices de ligne
+        image.append("    ");  // marge pour aligner avec les indices de ligne
         for (int j = 1; j <= n; j++) {
-            Ecran.afficher(j + " ");
+            image.append(j).append(' ');
         }
-        Ecran.afficherln("");
+        image.append(finLigne);
 
         // Ligne de séparation horizontale
-        Ecran.afficher("   +");
-        for (int j = 0; j < n; j++) {
-            Ecran.afficher("- ");
-        }
-        Ecran.afficherln("+");
+        separationJeux(n, image, finLigne);
 
         // Affichage de chaque ligne du plateau avec son indice (1..n)
         for (int i = 0; i < n; i++) {
-            Ecran.afficher((i + 1) + " | ");  // indice de ligne + séparateur
+            image.append(i + 1).append(" | ");  // indice de ligne + séparateur
             for (int j = 0; j < n; j++) {
-                Ecran.afficher(jeux[i][j] + " ");
+                image.append(jeux[i][j]).append(' ');
             }
-            Ecran.afficherln("|");
+            image.append('|').append(finLigne);
         }
 
         // Ligne de séparation du bas
-        Ecran.afficher("   +");
+        separationJeux(n, image, finLigne);
+    }
+
+    /** Ligne "   +- - ... +" au-dessus et en dessous de la grille. Complexité : O(n). */
+    private static void separationJeux(int n, StringBuilder image, String finLigne) {
+        image.append("   +");
         for (int j = 0; j < n; j++) {
-            Ecran.afficher("- ");
+            image.append("- ");
         }
-        Ecran.afficherln("+");
+        image.append('+').append(finLigne);
     }
 
     /**
@@ -153,6 +457,282 @@ public class CandyCrush {
      * mêmes caractères consécutifs et "supprime" ces bonbons en les remplaçant
      * par '-'.
      *
+     * La détection passe par le moteur de bitboards (voir PlateauBits) :
+     * 1. Le plateau est projeté en un plan de bits par type de bonbon.
+     * 2. Les motifs horizontaux et verticaux sont trouvés par décalages et ET
+     *    logiques sur des mots de 64 cases, et réunis dans un masque.
+     * 3. Seules les cases présentes dans le masque sont remplacées par '-'.
+     *
+     * Si le plateau contient un caractère hors de {'C', 'A', 'N', 'D', 'Y', '-'}
+     * (par exemple le 'B' du plateau test()), on se replie sur la recherche
+     * case par case supprimerSeries, qui donne le même résultat.
+     *
+     * @param jeux le plateau de jeu (char[n][n]).
+     *
+     * @return le même tableau 'jeux', avec les bonbons appartenant à un motif
+     *         de longueur ≥ 3 remplacés par '-'.
+     *
+     * Complexité temporelle :
+     * - Projection en plans de bits : O(n²), une lecture par case.
+     * - Détection : O(5 * n * ⌈n/64⌉) opérations sur des mots de 64 bits.
+     * - Suppression : proportionnelle au nombre de cases supprimées.
+     * ⇒ Complexité globale : O(n²), avec une constante bien plus faible.
+     */
+    public static char[][] rechercheMotif(char[][] jeux){
+        supprimerMotifs(jeux);
+        return jeux;
+    }
+
+    /**
+     * Variante de rechercheMotif qui retourne directement le nombre de bonbons
+     * supprimés, ce qui évite aux appelants (simulerCoup) de copier le plateau
+     * pour comparer "avant" et "après".
+     *
+     * @param jeux le plateau de jeu (char[n][n]), modifié sur place.
+     *
+     * @return le nombre de cases qui contenaient un bonbon et qui valent
+     *         maintenant '-'.
+     *
+     * Complexité temporelle :
+     * - Identique à rechercheMotif : O(n²).
+     */
+    public static int supprimerMotifs(char[][] jeux){
+        return supprimerMotifs(jeux, null);
+    }
+
+    /**
+     * Identique à supprimerMotifs(jeux), en indiquant aussi, pour chaque colonne,
+     * la ligne de la plus basse case supprimée : chute et remplissage ne
+     * modifieront que les cases au-dessus (voir IndexCoups).
+     *
+     * @param jeux      le plateau de jeu (char[n][n]), modifié sur place.
+     * @param plusBasse tableau de taille n (ou null) qui reçoit, pour chaque
+     *                  colonne, la ligne de la plus basse case vide après la
+     *                  suppression, ou -1 si la colonne n'en a pas.
+     *
+     * @return le nombre de bonbons supprimés.
+     *
+     * Complexité temporelle : identique à supprimerMotifs(jeux).
+     */
+    public static int supprimerMotifs(char[][] jeux, int[] plusBasse){
+        long debutNs = Metriques.debut();
+        int suppr = supprimerMotifsBits(jeux, plusBasse);
+        if (debutNs != 0) {
+            Metriques.RECHERCHE_MOTIF.depuis(debutNs);
+            Metriques.BONBONS_PAR_RECHERCHE.enregistrer(suppr);
+        }
+        return suppr;
+    }
+
+    /**
+     * Corps de supprimerMotifs(jeux, plusBasse), sans mesure : noyau SIMD si
+     * l'option -Dcandycrush.simd=true l'active (voir Simd), sinon plateau de bits.
+     */
+    private static int supprimerMotifsBits(char[][] jeux, int[] plusBasse){
+        if (Simd.actif(jeux.length)) {
+            return Simd.supprimerMotifs(jeux, plusBasse);
+        }
+        PlateauBits bits = PlateauBits.pour(jeux.length);
+
+        if (bits.charger(jeux)) {
+            bits.marquerMotifs();
+            if (plusBasse != null) {
+                bits.plusBasses(plusBasse);
+                if (bits.contientVide) {
+                    plusBassesVides(jeux, plusBasse); // cases vides déjà présentes
+                }
+            }
+            return bits.appliquer(jeux);
+        }
+
+        // Repli : caractère inconnu, recherche par longueurs de plages
+        return supprimerSeries(jeux, plusBasse);
+    }
+
+    /**
+     * Noyaux SIMD facultatifs de supprimerMotifs et chute (classe NoyauxVectoriels,
+     * API Vector du module jdk.incubator.vector). Ce module doit être ajouté à la
+     * compilation comme à l'exécution : la classe se compile donc à part, et on la
+     * charge ici par réflexion pour que CandyCrush.java reste lançable sans lui.
+     *
+     * Avec l'option -Dcandycrush.simd=true (et --add-modules jdk.incubator.vector),
+     * supprimerMotifs passe par son noyau, qui donne exactement le même plateau ;
+     * sans l'option, ou si la classe est introuvable, la version scalaire reste
+     * utilisée. Le noyau de chute n'est pas branché : ses passes de bulles coûtent
+     * une passe par trou de la colonne la plus trouée, et le banc d'essai le mesure
+     * plus lent que chute. Le banc mesure les deux noyaux dès qu'ils sont chargés,
+     * option ou non.
+     */
+    static final class Simd {
+
+        static final MethodHandle SUPPRIMER_MOTIFS; // (char[][] jeux, int[] plusBasse) -> int, ou null
+        static final MethodHandle CHUTE;            // (char[][] jeux, int[] plusBasse) -> int, ou null
+        static final int TAILLE_MIN;                // plus petit plateau traité par les noyaux
+        static final boolean ACTIF;
+
+        static {
+            MethodHandle supprimer = null;
+            MethodHandle chute = null;
+            int tailleMin = Integer.MAX_VALUE;
+            String erreur = null;
+            try {
+                Class<?> noyaux = Class.forName("NoyauxVectoriels", true, CandyCrush.class.getClassLoader());
+                MethodType type = MethodType.methodType(int.class, char[][].class, int[].class);
+                supprimer = MethodHandles.publicLookup().findStatic(noyaux, "supprimerMotifs", type);
+                chute = MethodHandles.publicLookup().findStatic(noyaux, "chute", type);
+                tailleMin = (int) noyaux.getMethod("tailleMinimale").invoke(null);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                erreur = e.toString(); // classe non compilée, ou module absent
+            }
+            SUPPRIMER_MOTIFS = supprimer;
+            CHUTE = chute;
+            TAILLE_MIN = tailleMin;
+            ACTIF = Boolean.getBoolean("candycrush.simd") && erreur == null;
+            if (Boolean.getBoolean("candycrush.simd") && erreur != null) {
+                Ecran.afficherln("Noyaux SIMD indisponibles (" + erreur + ") : versions scalaires.");
+            }
+        }
+
+        /**
+         * true si les noyaux sont chargés et traitent un plateau n x n : au moins
+         * un bloc de voies vectorielles de large, et des numéros de ligne sur 16 bits.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static boolean disponible(int n) {
+            return SUPPRIMER_MOTIFS != null && n >= TAILLE_MIN && n <= Short.MAX_VALUE;
+        }
+
+        /**
+         * true si supprimerMotifs doit passer par son noyau pour un plateau n x n
+         * (option -Dcandycrush.simd=true et noyaux disponibles).
+         *
+         * Complexité temporelle : O(1).
+         */
+        static boolean actif(int n) {
+            return ACTIF && disponible(n);
+        }
+
+        /** NoyauxVectoriels.supprimerMotifs(jeux, plusBasse), si disponible(jeux.length). */
+        static int supprimerMotifs(char[][] jeux, int[] plusBasse) {
+            try {
+                return (int) SUPPRIMER_MOTIFS.invokeExact(jeux, plusBasse);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e); // les noyaux ne lèvent pas d'exception vérifiée
+            }
+        }
+
+        /** NoyauxVectoriels.chute(jeux, plusBasse), si disponible(jeux.length). */
+        static int chute(char[][] jeux, int[] plusBasse) {
+            try {
+                return (int) CHUTE.invokeExact(jeux, plusBasse);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Abaisse plusBasse[c] jusqu'à la plus basse case '-' de chaque colonne c.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    private static void plusBassesVides(char[][] jeux, int[] plusBasse){
+        int n = jeux.length;
+        for (int c = 0; c < n; c++) {
+            for (int l = n - 1; l > plusBasse[c]; l--) {
+                if (jeux[l][c] == '-') {
+                    plusBasse[c] = l;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compte le nombre de cases vides ('-') du plateau.
+     *
+     * @param jeux le plateau de jeu (char[n][n]).
+     *
+     * @return le nombre de cases égales à '-'.
+     *
+     * Complexité temporelle :
+     * - Parcours de toutes les cases : O(n²).
+     */
+    public static int compterVides(char[][] jeux){
+        int vides = 0;
+        for (int i = 0; i < jeux.length; i++){
+            for (int j = 0; j < jeux.length; j++){
+                if (jeux[i][j] == '-') {
+                    vides++;
+                }
+            }
+        }
+        return vides;
+    }
+
+    /**
+     * Indique si le plateau contient au moins un motif de 3 bonbons identiques
+     * (plateau "instable"), sans le modifier.
+     *
+     * @param jeux le plateau de jeu (char[n][n]).
+     *
+     * @return true si rechercheMotif supprimerait au moins un bonbon.
+     *
+     * Complexité temporelle :
+     * - Identique à rechercheMotif : O(n²), sans écriture dans le plateau.
+     */
+    public static boolean contientMotif(char[][] jeux){
+        PlateauBits bits = PlateauBits.pour(jeux.length);
+
+        if (bits.charger(jeux)) {
+            bits.marquerMotifs();
+            return bits.masqueNonVide();
+        }
+        return supprimerMotifs(copieTableau(jeux)) > 0;
+    }
+
+    /**
+     * Indique si le plateau est stable, c'est-à-dire dans l'état d'un début de tour :
+     * aucun motif de 3 bonbons identiques et aucune case vide ('-').
+     *
+     * Sur un tel plateau, tout motif créé par un coup passe par l'une des cases
+     * permutées, ce qui permet la détection locale (simulerCoupLocal) et le filtre
+     * coupPossible. Une case vide, elle, ferait tomber des bonbons loin du coup.
+     *
+     * @param jeux le plateau de jeu (char[n][n]).
+     *
+     * @return true si le plateau ne contient ni motif ni case vide.
+     *
+     * Complexité temporelle :
+     * - Identique à rechercheMotif : O(n²), sans écriture dans le plateau.
+     */
+    public static boolean estStable(char[][] jeux){
+        PlateauBits bits = PlateauBits.pour(jeux.length);
+
+        if (bits.charger(jeux)) {
+            if (bits.contientVide) {
+                return false;
+            }
+            bits.marquerMotifs();
+            return !bits.masqueNonVide();
+        }
+        return compterVides(jeux) == 0 && !contientMotif(jeux);
+    }
+
+    /**
+     * Version de référence, case par case, de rechercheMotif : recherche tous les
+     * motifs (lignes ou colonnes) contenant au moins 3 mêmes caractères
+     * consécutifs et "supprime" ces bonbons en les remplaçant par '-'.
+     *
+     * Elle accepte n'importe quel caractère (pas seulement les 5 bonbons) et sert
+     * de référence aux tests d'équivalence (le repli du moteur de bitboards est
+     * supprimerSeries, qui ne lit chaque case qu'une fois).
+     *
      * La fonction procède en deux temps :
      * 1. Détecter les motifs horizontalement (par ligne) et verticalement (par colonne)
      *    et les noter dans un tableau de booléens 'motif'.
@@ -169,7 +749,7 @@ public class CandyCrush {
      * - Parcours final de remplacement : O(n²)
      * ⇒ Complexité globale : O(n²).
      */
-    public static char[][] rechercheMotif(char[][] jeux){
+    public static char[][] rechercheMotifScalaire(char[][] jeux){
 
         int n = jeux.length;
 
@@ -225,50 +805,592 @@ public class CandyCrush {
     }
 
     /**
-     * Génère un petit plateau de test 5x5 pour vérifier le bon comportement
-     * des fonctions de suppression de motifs, de chute, etc.
+     * Recherche en une seule passe, par longueurs de plages, toutes les séries
+     * maximales (lignes ou colonnes) d'au moins 3 mêmes caractères consécutifs,
+     * sans modifier le plateau.
      *
-     * Remarque : ce plateau ne correspond pas forcément à la taille n x n utilisée
-     * dans le programme principal, il est donc plutôt destiné à des tests
-     * unitaires / locaux indépendants de la valeur de n.
+     * Contrairement à rechercheMotifScalaire, qui fait glisser une fenêtre de 3 cases
+     * (une case d'une série de 5 y est comparée et marquée trois fois), chaque case
+     * n'est lue qu'une fois :
+     * - horizontalement, la plage courante de la ligne s'arrête au premier
+     *   caractère différent ;
+     * - verticalement, on tient pour chaque colonne la hauteur de la plage qui se
+     *   termine sur la ligne précédente, prolongée ou close à chaque ligne.
+     * Chaque série est ainsi trouvée une seule fois, avec sa longueur et son
+     * bonbon ; les plages de '-' sont ignorées.
      *
-     * @return un plateau 5x5 prédéfini pour des tests.
+     * @param jeux le plateau de jeu (char[n][n]), non modifié.
      *
-     * Complexité temporelle :
-     * - Simple initialisation littérale d’un tableau : O(1).
+     * @return la liste des séries du thread courant (voir Series), valable jusqu'au
+     *         prochain appel sur ce thread.
+     *
+     * Complexité temporelle : O(n²), une lecture par case et O(1) par série.
      */
-    public static char[][] test(){
-        char[][] test = {
-            {'B','A','C','C','C'},
-            {'A','A','B','A','A'},
-            {'C','A','B','A','A'},
-            {'A','A','A','C','A'},
-            {'B','A','A','A','A'}
-        };
-        return test;
+    public static Series rechercheSeries(char[][] jeux){
+        int n = jeux.length;
+        Series series = Series.pour(n);
+        series.vider();
+        int[] hauteur = series.hauteur; // plage verticale se terminant sur la ligne l-1
+        Arrays.fill(hauteur, 0);        // la ligne 0 est comparée à elle-même : hauteur 1
+        boolean vide = false;
+
+        for (int l = 0; l < n; l++) {
+            char[] ligne = jeux[l];
+            char[] dessus = jeux[l == 0 ? 0 : l - 1];
+            int debut = 0; // début de la plage horizontale courante
+            for (int c = 0; c < n; c++) {
+                char ch = ligne[c];
+                vide |= ch == '-';
+                if (dessus[c] == ch) {
+                    hauteur[c]++;
+                } else {
+                    if (hauteur[c] >= 3 && dessus[c] != '-') {
+                        series.ajouter(l - hauteur[c], c, Series.VERTICALE, hauteur[c], dessus[c]);
+                    }
+                    hauteur[c] = 1;
+                }
+                if (ch != ligne[debut]) {
+                    if (c - debut >= 3 && ligne[debut] != '-') {
+                        series.ajouter(l, debut, Series.HORIZONTALE, c - debut, ligne[debut]);
+                    }
+                    debut = c;
+                }
+            }
+            if (n - debut >= 3 && ligne[debut] != '-') {
+                series.ajouter(l, debut, Series.HORIZONTALE, n - debut, ligne[debut]);
+            }
+        }
+        for (int c = 0; c < n; c++) { // plages verticales qui touchent le bas
+            if (hauteur[c] >= 3 && jeux[n - 1][c] != '-') {
+                series.ajouter(n - hauteur[c], c, Series.VERTICALE, hauteur[c], jeux[n - 1][c]);
+            }
+        }
+        series.contientVide = vide;
+        return series;
     }
 
     /**
-     * Fait "tomber" les bonbons dans chaque colonne du plateau.
-     *
-     * Principe :
-     * - On parcourt chaque colonne de bas en haut.
-     * - On maintient un indice 'position' qui représente la prochaine case
-     *   (en partant du bas) où placer un bonbon réel.
-     * - À chaque bonbon non vide ('-' signifie vide), on le "descend" à
-     *   l'indice 'position', puis on décrémente 'position'.
-     * - Une fois tous les bonbons d'une colonne descendus, on remplit le
-     *   reste en haut par '-' (cases vides).
+     * Variante de supprimerMotifs(jeux, plusBasse) par rechercheSeries : les séries
+     * sont trouvées en une passe, puis chacune est vidée d'un seul tenant
+     * (Series.appliquer). Elle accepte n'importe quel caractère et sert de repli au
+     * moteur de bitboards ; le plateau obtenu et le nombre de bonbons supprimés sont
+     * ceux de supprimerMotifs.
      *
-     * @param jeux le plateau de jeu (char[n][n]) après suppression de motifs.
+     * @param jeux      le plateau de jeu (char[n][n]), modifié sur place.
+     * @param plusBasse tableau de taille n (ou null), voir supprimerMotifs.
      *
-     * @return le même tableau 'jeux', où les bonbons ont chuté vers le bas.
+     * @return le nombre de bonbons supprimés ; les séries restent disponibles dans
+     *         Series.pour(n) (longueurs, bonbons) jusqu'au prochain appel.
      *
-     * Complexité temporelle :
-     * - Pour chaque colonne, on parcourt les n lignes : O(n)
-     * - On a n colonnes, donc O(n²).
+     * Complexité temporelle : O(n²) pour la recherche, plus la longueur des séries.
      */
-    public static char[][] chute(char[][] jeux){
+    public static int supprimerSeries(char[][] jeux, int[] plusBasse){
+        Series series = rechercheSeries(jeux);
+        int suppr = series.appliquer(jeux, plusBasse);
+        if (plusBasse != null && series.contientVide) {
+            plusBassesVides(jeux, plusBasse); // cases vides déjà présentes
+        }
+        return suppr;
+    }
+
+    /**
+     * Séries maximales d'au moins 3 bonbons identiques trouvées par
+     * rechercheSeries, rangées à plat dans un int[] (4 entiers par série : ligne
+     * et colonne de la première case, longueur * 2 + direction, bonbon), sans
+     * objet par série.
+     *
+     * Les séries d'une même direction ne se chevauchent pas ; une série horizontale
+     * et une série verticale peuvent partager une case (motifs en L ou en T).
+     *
+     * Une instance est réutilisée par thread (voir pour()).
+     */
+    static final class Series {
+
+        /** Directions d'une série : vers la droite ou vers le bas. */
+        static final int HORIZONTALE = 0, VERTICALE = 1;
+
+        private static final ThreadLocal<Series> PAR_THREAD = new ThreadLocal<>();
+
+        final int n;
+        final int[] hauteur;     // plage verticale en cours, par colonne (rechercheSeries)
+        private int[] donnees;   // 4 entiers par série
+        private int nombre;      // nombre de séries
+        boolean contientVide;    // au moins une case '-' lors de la dernière recherche
+
+        Series(int n) {
+            this.n = n;
+            this.hauteur = new int[n];
+            this.donnees = new int[4 * 16];
+        }
+
+        /**
+         * Retourne l'instance du thread courant, (re)créée si la taille change.
+         *
+         * Complexité temporelle : O(1) (hors création, O(n)).
+         */
+        static Series pour(int n) {
+            Series series = PAR_THREAD.get();
+            if (series == null || series.n != n) {
+                series = new Series(n);
+                PAR_THREAD.set(series);
+            }
+            return series;
+        }
+
+        /** Oublie les séries trouvées. Complexité temporelle : O(1). */
+        void vider() {
+            nombre = 0;
+        }
+
+        /**
+         * Ajoute une série (la liste double de taille si besoin).
+         *
+         * Complexité temporelle : O(1) amorti.
+         */
+        void ajouter(int ligne, int colonne, int direction, int longueur, char bonbon) {
+            int i = 4 * nombre;
+            if (i == donnees.length) {
+                donnees = Arrays.copyOf(donnees, 2 * donnees.length);
+            }
+            donnees[i] = ligne;
+            donnees[i + 1] = colonne;
+            donnees[i + 2] = (longueur << 1) | direction;
+            donnees[i + 3] = bonbon;
+            nombre++;
+        }
+
+        /** Nombre de séries trouvées. Complexité temporelle : O(1). */
+        int nombre() {
+            return nombre;
+        }
+
+        /** Ligne de la première case (la plus haute) de la série i. O(1). */
+        int ligne(int i) {
+            return donnees[4 * i];
+        }
+
+        /** Colonne de la première case (la plus à gauche) de la série i. O(1). */
+        int colonne(int i) {
+            return donnees[4 * i + 1];
+        }
+
+        /** HORIZONTALE ou VERTICALE. Complexité temporelle : O(1). */
+        int direction(int i) {
+            return donnees[4 * i + 2] & 1;
+        }
+
+        /** Nombre de cases (≥ 3) de la série i. Complexité temporelle : O(1). */
+        int longueur(int i) {
+            return donnees[4 * i + 2] >>> 1;
+        }
+
+        /** Bonbon de la série i. Complexité temporelle : O(1). */
+        char bonbon(int i) {
+            return (char) donnees[4 * i + 3];
+        }
+
+        /**
+         * Nombre de séries d'au moins 'longueur' cases (par exemple 4 ou 5, pour
+         * pondérer les grands motifs sans rechercher à nouveau).
+         *
+         * Complexité temporelle : O(nombre de séries).
+         */
+        int auMoins(int longueur) {
+            int compte = 0;
+            for (int i = 0; i < nombre; i++) {
+                if (longueur(i) >= longueur) {
+                    compte++;
+                }
+            }
+            return compte;
+        }
+
+        /**
+         * Remplace par '-' les cases de toutes les séries : une série horizontale est
+         * vidée d'une seule écriture (Arrays.fill sur sa ligne), une série verticale
+         * case par case en ne comptant que les cases pas déjà vidées par une série
+         * horizontale.
+         *
+         * @param jeux      le plateau sur lequel les séries ont été trouvées.
+         * @param plusBasse tableau de taille n (ou null) qui reçoit, pour chaque
+         *                  colonne, la ligne de la plus basse case supprimée, ou -1.
+         *
+         * @return le nombre de cases vidées (les cases communes à deux séries ne
+         *         comptent qu'une fois).
+         *
+         * Complexité temporelle : O(n + somme des longueurs des séries).
+         */
+        int appliquer(char[][] jeux, int[] plusBasse) {
+            if (plusBasse != null) {
+                Arrays.fill(plusBasse, -1);
+            }
+            int suppr = 0;
+            for (int i = 0; i < nombre; i++) { // les horizontales d'abord
+                if (direction(i) != HORIZONTALE) continue;
+                int l = ligne(i), c = colonne(i), fin = c + longueur(i);
+                Arrays.fill(jeux[l], c, fin, '-');
+                suppr += fin - c;
+                if (plusBasse != null) {
+                    for (int k = c; k < fin; k++) {
+                        plusBasse[k] = Math.max(plusBasse[k], l);
+                    }
+                }
+            }
+            for (int i = 0; i < nombre; i++) {
+                if (direction(i) != VERTICALE) continue;
+                int l = ligne(i), c = colonne(i), fin = l + longueur(i);
+                for (int k = l; k < fin; k++) {
+                    if (jeux[k][c] != '-') { // sinon déjà comptée par une horizontale
+                        jeux[k][c] = '-';
+                        suppr++;
+                    }
+                }
+                if (plusBasse != null) {
+                    plusBasse[c] = Math.max(plusBasse[c], fin - 1);
+                }
+            }
+            return suppr;
+        }
+    }
+
+    /**
+     * Moteur de détection de motifs par "bitboards".
+     *
+     * Chaque case reçoit un code sur 3 bits : 0..4 pour {'C', 'A', 'N', 'D', 'Y'},
+     * 5 pour '-', 6 pour un caractère inconnu. Le plateau est stocké en trois plans
+     * de bits (long[]), un par bit du code, plus un plan 'bonbons' des cases
+     * occupées par un vrai bonbon : le plan d'un type donné s'obtient par ET de
+     * ces tranches, mais la détection travaille directement sur les tranches, ce
+     * qui traite les 5 types en une seule passe au lieu de 5.
+     *
+     * Le bit j du mot m de la ligne l correspond à la case (l, 64 * m + j) ; chaque
+     * ligne occupe 'mots' = ⌈n/64⌉ mots.
+     *
+     * - Égalité de deux voisins : aucun bit du code ne diffère, soit
+     *   ~((t0 ^ t0 >>> 1) | (t1 ^ t1 >>> 1) | (t2 ^ t2 >>> 1)).
+     * - Motif horizontal : deux égalités consécutives sur trois bonbons, trouvées
+     *   pour toute une ligne d'un coup par décalages et ET logiques.
+     * - Motif vertical : même calcul entre les lignes l, l+1 et l+2, mot par mot.
+     * - La suppression est un simple masque, appliqué seulement aux bits à 1.
+     *
+     * Une instance est réutilisée par thread (voir pour()) afin de ne rien
+     * allouer à chaque appel de rechercheMotif.
+     */
+    static final class PlateauBits {
+
+        /** Bonbons reconnus, dans l'ordre de leur code. */
+        static final char[] BONBONS = {'C', 'A', 'N', 'D', 'Y'};
+
+        /** Codes des cases : 0..4 pour les bonbons, VIDE pour '-', INCONNU sinon. */
+        static final int VIDE = 5, INCONNU = 6;
+        private static final byte[] CODE = new byte[128];
+        static {
+            Arrays.fill(CODE, (byte) INCONNU);
+            for (int t = 0; t < BONBONS.length; t++) {
+                CODE[BONBONS[t]] = (byte) t;
+            }
+            CODE['-'] = VIDE;
+        }
+
+        /** Cases par paquet de charger() et masque d'un champ de PAQUET bits. */
+        private static final int PAQUET = 21;
+        private static final long CHAMP = (1L << PAQUET) - 1;
+
+        /** Bits 0, 1 et 2 du code de chaque caractère, aux positions 0, 21 et 42. */
+        private static final long[] ETALE = new long[128];
+        static {
+            for (int ch = 0; ch < ETALE.length; ch++) {
+                long c = CODE[ch];
+                ETALE[ch] = (c & 1) | (((c >>> 1) & 1) << PAQUET) | ((c >>> 2) << (2 * PAQUET));
+            }
+        }
+
+        private static final ThreadLocal<PlateauBits> PAR_THREAD = new ThreadLocal<>();
+
+        final int n;      // taille du plateau
+        final int mots;   // nombre de mots de 64 bits par ligne
+        final long[] t0, t1, t2; // tranches du code de chaque case (bit 0, 1 et 2)
+        final long[] bonbons;    // cases contenant un vrai bonbon
+        final long[] masque;     // cases appartenant à un motif
+        boolean contientVide;    // au moins une case '-' lors du dernier chargement
+        private final long[] egaux;   // égalités horizontales d'une ligne
+        private final long[] debuts;  // débuts de séries horizontales d'une ligne
+        final int[] plusBasse;        // à prêter à supprimerMotifs(jeux, plusBasse) (simulerCoup)
+
+        PlateauBits(int n) {
+            this.n = n;
+            this.mots = (n + 63) >>> 6;
+            this.t0 = new long[n * mots];
+            this.t1 = new long[n * mots];
+            this.t2 = new long[n * mots];
+            this.bonbons = new long[n * mots];
+            this.masque = new long[n * mots];
+            this.egaux = new long[mots];
+            this.debuts = new long[mots];
+            this.plusBasse = new int[n];
+        }
+
+        /**
+         * Retourne l'instance du thread courant, (re)créée si la taille change.
+         *
+         * Complexité temporelle : O(1) (hors création, O(n²/64)).
+         */
+        static PlateauBits pour(int n) {
+            PlateauBits bits = PAR_THREAD.get();
+            if (bits == null || bits.n != n) {
+                bits = new PlateauBits(n);
+                PAR_THREAD.set(bits);
+            }
+            return bits;
+        }
+
+        /**
+         * Code sur 3 bits d'un caractère du plateau.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static int code(char ch) {
+            return ch < CODE.length ? CODE[ch] : INCONNU;
+        }
+
+        /**
+         * Projette le plateau dans les tranches de bits et remet le masque à zéro.
+         *
+         * @return false si une case contient un caractère autre qu'un bonbon ou '-'
+         *         (les tranches ne distinguent alors plus ces caractères entre eux et
+         *         ne doivent pas être utilisées).
+         *
+         * Complexité temporelle : O(n²), sans branche par case (une lecture de table
+         * et un OU par case, les tranches étant réparties par paquets de 21).
+         */
+        boolean charger(char[][] jeux) {
+            contientVide = false;
+            for (int l = 0; l < n; l++) {
+                char[] ligne = jeux[l];
+                for (int m = 0; m < mots; m++) {
+                    long b0 = 0, b1 = 0, b2 = 0;
+                    int horsTable = 0;
+                    int debut = m << 6;
+                    int fin = Math.min(n, debut + 64);
+                    // Paquets de 21 cases : ETALE place les trois bits du code dans
+                    // trois champs de 21 bits d'un même long, une seule table et un
+                    // seul OU par case ; les champs sont répartis par tranche ensuite.
+                    for (int j = debut; j < fin; j += PAQUET) {
+                        int finPaquet = Math.min(fin, j + PAQUET);
+                        long paquet = 0;
+                        for (int k = j; k < finPaquet; k++) {
+                            char ch = ligne[k];
+                            horsTable |= ch;
+                            paquet |= ETALE[ch & 0x7F] << (k - j);
+                        }
+                        int dec = j - debut;
+                        b0 |= (paquet & CHAMP) << dec;
+                        b1 |= ((paquet >>> PAQUET) & CHAMP) << dec;
+                        b2 |= (paquet >>> (2 * PAQUET)) << dec;
+                    }
+                    if ((b2 & b1) != 0 || horsTable >= CODE.length) { // caractère inconnu
+                        return false;
+                    }
+                    long valides = (fin - debut == 64) ? -1L : (1L << (fin - debut)) - 1;
+                    int k = l * mots + m;
+                    t0[k] = b0;
+                    t1[k] = b1;
+                    t2[k] = b2;
+                    bonbons[k] = valides & ~(b2 & b0); // exclut le code 5 ('-')
+                    contientVide |= (valides & b2 & b0) != 0;
+                    masque[k] = 0;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Marque dans 'masque' toutes les cases appartenant à une série d'au moins
+         * trois bonbons identiques, horizontalement ou verticalement.
+         *
+         * Complexité temporelle : O(n * mots).
+         */
+        void marquerMotifs() {
+            if (mots == 1) {
+                marquerMotifsUnMot();
+                return;
+            }
+
+            // Séries horizontales : décalages à l'intérieur de chaque ligne
+            for (int l = 0; l < n; l++) {
+                int base = l * mots;
+                for (int m = 0; m < mots; m++) {
+                    int k = base + m;
+                    boolean dernier = (m + 1 == mots);
+                    long diff = (t0[k] ^ decaler(t0, k, dernier, 1))
+                              | (t1[k] ^ decaler(t1, k, dernier, 1))
+                              | (t2[k] ^ decaler(t2, k, dernier, 1));
+                    egaux[m] = ~diff & bonbons[k] & decaler(bonbons, k, dernier, 1);
+                }
+                for (int m = 0; m < mots; m++) {
+                    long suivant = (m + 1 < mots) ? egaux[m + 1] : 0;
+                    debuts[m] = egaux[m] & ((egaux[m] >>> 1) | (suivant << 63));
+                }
+                for (int m = 0; m < mots; m++) {
+                    long s = debuts[m];
+                    long precedent = (m > 0) ? debuts[m - 1] : 0;
+                    masque[base + m] |= s | (s << 1) | (precedent >>> 63)
+                                          | (s << 2) | (precedent >>> 62);
+                }
+            }
+
+            // Séries verticales : mêmes égalités entre trois lignes consécutives
+            for (int l = 0; l + 2 < n; l++) {
+                for (int m = 0; m < mots; m++) {
+                    int k0 = l * mots + m, k1 = k0 + mots, k2 = k1 + mots;
+                    long v = bonbons[k0] & bonbons[k1] & bonbons[k2]
+                           & ~((t0[k0] ^ t0[k1]) | (t1[k0] ^ t1[k1]) | (t2[k0] ^ t2[k1]))
+                           & ~((t0[k1] ^ t0[k2]) | (t1[k1] ^ t1[k2]) | (t2[k1] ^ t2[k2]));
+                    if (v != 0) {
+                        masque[k0] |= v;
+                        masque[k1] |= v;
+                        masque[k2] |= v;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Cas n ≤ 64 (toutes les parties "normales") : une ligne tient dans un seul
+         * mot, les décalages n'ont plus de retenue à propager entre mots.
+         *
+         * Complexité temporelle : O(n).
+         */
+        private void marquerMotifsUnMot() {
+            for (int l = 0; l < n; l++) {
+                long b = bonbons[l];
+                long a0 = t0[l], a1 = t1[l], a2 = t2[l];
+                long e = ~((a0 ^ (a0 >>> 1)) | (a1 ^ (a1 >>> 1)) | (a2 ^ (a2 >>> 1))) & b & (b >>> 1);
+                long s = e & (e >>> 1);
+                masque[l] |= s | (s << 1) | (s << 2);
+            }
+            for (int l = 0; l + 2 < n; l++) {
+                long v = bonbons[l] & bonbons[l + 1] & bonbons[l + 2]
+                       & ~((t0[l] ^ t0[l + 1]) | (t1[l] ^ t1[l + 1]) | (t2[l] ^ t2[l + 1]))
+                       & ~((t0[l + 1] ^ t0[l + 2]) | (t1[l + 1] ^ t1[l + 2]) | (t2[l + 1] ^ t2[l + 2]));
+                masque[l] |= v;
+                masque[l + 1] |= v;
+                masque[l + 2] |= v;
+            }
+        }
+
+        /**
+         * Mot k du plan décalé de 'd' cases vers la gauche (bit j ← case j + d),
+         * en récupérant les bits du mot suivant de la même ligne.
+         *
+         * Complexité temporelle : O(1).
+         */
+        private static long decaler(long[] plan, int k, boolean dernier, int d) {
+            return (plan[k] >>> d) | (dernier ? 0 : plan[k + 1] << (64 - d));
+        }
+
+        /**
+         * Indique si au moins une case est marquée dans le masque.
+         *
+         * Complexité temporelle : O(n * mots).
+         */
+        boolean masqueNonVide() {
+            for (long m : masque) {
+                if (m != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Écrit dans plusBasse[c] la ligne de la plus basse case du masque dans la
+         * colonne c, ou -1 si la colonne n'en contient pas.
+         *
+         * Complexité temporelle : O(n * mots + nombre de cases du masque).
+         */
+        void plusBasses(int[] plusBasse) {
+            Arrays.fill(plusBasse, 0, n, -1);
+            for (int l = 0; l < n; l++) {
+                for (int m = 0; m < mots; m++) {
+                    long bits = masque[l * mots + m];
+                    while (bits != 0) {
+                        plusBasse[(m << 6) + Long.numberOfTrailingZeros(bits)] = l;
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Remplace par '-' les cases du masque dans le plateau.
+         *
+         * @return le nombre de bonbons supprimés.
+         *
+         * Complexité temporelle : O(n * mots + nombre de cases supprimées).
+         */
+        int appliquer(char[][] jeux) {
+            int suppr = 0;
+            for (int l = 0; l < n; l++) {
+                for (int m = 0; m < mots; m++) {
+                    long bits = masque[l * mots + m];
+                    suppr += Long.bitCount(bits);
+                    while (bits != 0) {
+                        jeux[l][(m << 6) + Long.numberOfTrailingZeros(bits)] = '-';
+                        bits &= bits - 1; // efface le bit de poids faible
+                    }
+                }
+            }
+            return suppr;
+        }
+    }
+
+    /**
+     * Génère un petit plateau de test 5x5 pour vérifier le bon comportement
+     * des fonctions de suppression de motifs, de chute, etc.
+     *
+     * Remarque : ce plateau ne correspond pas forcément à la taille n x n utilisée
+     * dans le programme principal, il est donc plutôt destiné à des tests
+     * unitaires / locaux indépendants de la valeur de n.
+     *
+     * @return un plateau 5x5 prédéfini pour des tests.
+     *
+     * Complexité temporelle :
+     * - Simple initialisation littérale d’un tableau : O(1).
+     */
+    public static char[][] test(){
+        char[][] test = {
+            {'B','A','C','C','C'},
+            {'A','A','B','A','A'},
+            {'C','A','B','A','A'},
+            {'A','A','A','C','A'},
+            {'B','A','A','A','A'}
+        };
+        return test;
+    }
+
+    /**
+     * Fait "tomber" les bonbons dans chaque colonne du plateau.
+     *
+     * Principe :
+     * - On parcourt chaque colonne de bas en haut.
+     * - On maintient un indice 'position' qui représente la prochaine case
+     *   (en partant du bas) où placer un bonbon réel.
+     * - À chaque bonbon non vide ('-' signifie vide), on le "descend" à
+     *   l'indice 'position', puis on décrémente 'position'.
+     * - Une fois tous les bonbons d'une colonne descendus, on remplit le
+     *   reste en haut par '-' (cases vides).
+     *
+     * @param jeux le plateau de jeu (char[n][n]) après suppression de motifs.
+     *
+     * @return le même tableau 'jeux', où les bonbons ont chuté vers le bas.
+     *
+     * Complexité temporelle :
+     * - Pour chaque colonne, on parcourt les n lignes : O(n)
+     * - On a n colonnes, donc O(n²).
+     */
+    public static char[][] chute(char[][] jeux){
+        long debutNs = Metriques.debut();
         int n = jeux.length;
 
         for (int colonne = 0; colonne < n; colonne++) { // parcours de toutes les colonnes
@@ -287,71 +1409,140 @@ public class CandyCrush {
                 jeux[ligne][colonne] = '-';
             }
         }
+        if (debutNs != 0) Metriques.CHUTE.depuis(debutNs);
         return jeux;
     }
 
+    /**
+     * Identique à chute(jeux), limitée aux colonnes modifiées par la dernière
+     * suppression : plusBasse vient de supprimerMotifs(jeux, plusBasse). Les
+     * colonnes à -1 n'ont aucune case vide et sont sautées, et dans les autres
+     * seules les lignes au-dessus de la plus basse case vide sont parcourues.
+     *
+     * @param jeux      le plateau de jeu (char[n][n]) après suppression de motifs.
+     * @param plusBasse plus basse case vide de chaque colonne, ou -1 (non modifié).
+     *
+     * @return le nombre de bonbons qui sont tombés (0 : rien n'a bougé).
+     *
+     * Complexité temporelle : O(taille des zones au-dessus des cases vides),
+     * O(n²) au pire.
+     */
+    public static int chute(char[][] jeux, int[] plusBasse){
+        long debutNs = Metriques.debut();
+        int n = jeux.length;
+        int tombes = 0;
+
+        for (int colonne = 0; colonne < n; colonne++) {
+            if (plusBasse[colonne] < 0) {
+                continue; // colonne intacte
+            }
+            // tout bonbon au-dessus de la plus basse case vide descend
+            int position = plusBasse[colonne];
+            for (int ligne = position; ligne >= 0; ligne--) {
+                if (jeux[ligne][colonne] != '-') {
+                    jeux[position][colonne] = jeux[ligne][colonne];
+                    position--;
+                    tombes++;
+                }
+            }
+            for (int ligne = position; ligne >= 0; ligne--) {
+                jeux[ligne][colonne] = '-';
+            }
+        }
+        if (debutNs != 0) Metriques.CHUTE.depuis(debutNs);
+        return tombes;
+    }
+
     /**
      * Remplit les cases vides (marquées par '-') du plateau avec de nouveaux bonbons
-     * choisis aléatoirement, en essayant d'éviter de créer immédiatement des motifs
-     * de 3 bonbons identiques (horizontalement ou verticalement).
+     * choisis aléatoirement, sans jamais créer de motif de 3 bonbons identiques
+     * (horizontalement ou verticalement).
      *
-     * Pour chaque case vide :
-     * - On choisit aléatoirement un bonbon dans {'C', 'A', 'N', 'D', 'Y'}.
-     * - On vérifie si ce choix créerait un motif horizontal (2 bonbons identiques
-     *   à gauche) ou vertical (2 bonbons identiques au-dessus).
-     * - Si oui, on recommence avec un nouveau choix.
-     * - On limite le nombre d'essais à 50 pour éviter une boucle infinie.
+     * Pour chaque case vide, parcourue ligne par ligne, de gauche à droite :
+     * - On calcule l'ensemble des bonbons de {'C', 'A', 'N', 'D', 'Y'} qui ne
+     *   formeraient pas de série de 3 avec les cases voisines déjà remplies
+     *   (à gauche, à droite, au-dessus, en dessous, voir bonbonAutorise).
+     * - On tire directement un bonbon de cet ensemble, qui n'est jamais vide.
      *
      * @param jeux le plateau de jeu (char[n][n]) avec des '-'
      *             représentant les cases vides.
      *
      * @return le même tableau 'jeux', où toutes les cases vides ont été remplies.
      *
+     * Le tirage utilise le générateur propre au thread courant (ThreadLocalRandom),
+     * voir remplissage(jeux, alea) pour un remplissage reproductible.
+     *
      * Complexité temporelle :
      * - Parcours de toutes les cases : O(n²).
-     * - Pour chaque case, on fait au plus un nombre constant d'essais (limité à 50),
-     *   donc le coût par case reste O(1) en pratique.
+     * - Pour chaque case vide, un calcul d'ensemble et un tirage : O(1).
      * ⇒ Complexité globale : O(n²).
      */
     public static char[][] remplissage(char[][] jeux){
+        return remplissage(jeux, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à remplissage(jeux), avec un générateur aléatoire explicite.
+     *
+     * @param jeux le plateau de jeu (char[n][n]) avec des '-' à remplir.
+     * @param alea générateur utilisé pour tirer les bonbons (non partagé entre threads).
+     *
+     * @return le même tableau 'jeux', où toutes les cases vides ont été remplies.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    public static char[][] remplissage(char[][] jeux, RandomGenerator alea){
+        long debutNs = Metriques.debut();
         int n = jeux.length;
-        char[] candy = {'C', 'A', 'N', 'D', 'Y'};
 
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) { // parcours de tout le plateau
 
                 if (jeux[i][j] == '-') { // action seulement s'il faut remplir la case
+                    // tirage direct parmi les bonbons qui ne créent pas de série de trois
+                    jeux[i][j] = bonbonAutorise(jeux, i, j, alea);
+                }
+            }
+        }
 
-                    char choisi;
-                    boolean ok;
-                    int essais = 0;
-
-                    do {
-                        int randomIndex = (int)(Math.random() * candy.length);
-                        choisi = candy[randomIndex]; // choix aléatoire de bonbon
-                        ok = true;
-
-                        // Vérifie si on crée un motif horizontal de trois
-                        if (j >= 2 && jeux[i][j-1] == choisi && jeux[i][j-2] == choisi) {
-                            ok = false;
-                        }
-
-                        // Vérifie si on crée un motif vertical de trois
-                        if (i >= 2 && jeux[i-1][j] == choisi && jeux[i-2][j] == choisi) {
-                            ok = false;
-                        }
-
-                        essais++;
+        if (debutNs != 0) Metriques.REMPLISSAGE.depuis(debutNs);
+        return jeux;
+    }
 
-                        // Si ok == false, on recommence avec un autre choix
-                    } while (!ok && essais < 50); // sécurité pour éviter une boucle infinie
+    /**
+     * Identique à remplissage(jeux, alea) après chute(jeux, plusBasse) : les
+     * cases vides ne peuvent être que dans les lignes 0..plusBasse[c] des
+     * colonnes modifiées, seules ces cases sont examinées. L'ordre de
+     * remplissage (ligne par ligne, de gauche à droite) et donc les tirages sont
+     * exactement ceux de remplissage(jeux, alea).
+     *
+     * @param plusBasse plus basse case vide de chaque colonne avant la chute, ou -1.
+     *
+     * @return le nombre de cases remplies (0 : rien n'a changé).
+     *
+     * Complexité temporelle : O(n x plus haute des valeurs de plusBasse), O(n²)
+     * au pire.
+     */
+    public static int remplissage(char[][] jeux, int[] plusBasse, RandomGenerator alea){
+        long debutNs = Metriques.debut();
+        int n = jeux.length;
+        int hauteur = -1;
+        for (int j = 0; j < n; j++) {
+            hauteur = Math.max(hauteur, plusBasse[j]);
+        }
 
-                    jeux[i][j] = choisi; // affectation du bonbon choisi
+        int remplies = 0;
+        for (int i = 0; i <= hauteur; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i <= plusBasse[j] && jeux[i][j] == '-') {
+                    jeux[i][j] = bonbonAutorise(jeux, i, j, alea);
+                    remplies++;
                 }
             }
         }
 
-        return jeux;
+        if (debutNs != 0) Metriques.REMPLISSAGE.depuis(debutNs);
+        return remplies;
     }
 
     /**
@@ -378,6 +1569,27 @@ public class CandyCrush {
         return tableau_copie;
     }
 
+    /**
+     * Copie un plateau n x n dans un tableau déjà alloué, ligne par ligne.
+     *
+     * Permet de réutiliser un même tableau de travail d'une simulation à l'autre
+     * au lieu d'en allouer un nouveau avec copieTableau.
+     *
+     * @param source      le plateau à copier (char[n][n]).
+     * @param destination le tableau de travail (char[n][n]) qui reçoit la copie.
+     *
+     * @return le tableau 'destination'.
+     *
+     * Complexité temporelle :
+     * - n copies de lignes de n cases : O(n²).
+     */
+    public static char[][] copierDans(char[][] source, char[][] destination){
+        for (int i = 0; i < source.length; i++){
+            System.arraycopy(source[i], 0, destination[i], 0, source.length);
+        }
+        return destination;
+    }
+
     /**
      * Compare deux tableaux n x n et indique s'ils sont identiques ou non.
      *
@@ -388,20 +1600,16 @@ public class CandyCrush {
      *         copie[i][j] != plateau[i][j], false sinon (plateaux identiques).
      *
      * Complexité temporelle :
-     * - Parcours de toutes les cases des deux tableaux : O(n²).
+     * - Parcours des lignes jusqu'à la première différence : O(n²) au pire.
      */
     public static boolean differents(char[][] copie, char[][] plateau){
         int n = plateau.length;
-        boolean test = false;
         for (int i = 0; i < n; i++){
-            for (int j  = 0; j < n; j++){
-                if (copie[i][j] != plateau[i][j]){ // dès qu'une différence est trouvée
-                    test = true;
-                    break; // on sort de la boucle interne (mais on pourrait sortir plus tôt)
-                }
+            if (!Arrays.equals(copie[i], plateau[i])){ // dès qu'une différence est trouvée
+                return true;                          // inutile de lire les lignes suivantes
             }
         }
-        return test;
+        return false;
     }
 
     /**
@@ -430,20 +1638,25 @@ public class CandyCrush {
     /**
      * Boucle principale de gestion du plateau.
      *
+     * La partie est jouée par jouerPartie (boucle itérative) avec un rendu console
+     * animé (RenduConsole) ; le déroulement à l'écran est le même qu'avant. En
+     * particulier, un plateau bloqué n'est pas remélangé comme dans les parties
+     * sans affichage (voir jouerPartie) : le bot s'arrête.
+     *
      * Deux modes de fonctionnement :
      * - Mode joueur (auto == false) :
      *      * stabilise le plateau (motifs -> chute -> remplissage),
      *      * propose un meilleur coup,
      *      * demande à l'utilisateur s'il veut continuer,
      *      * lit une permutation au clavier,
-     *      * relance le jeu.
+     *      * passe au tour suivant.
      *
      * - Mode bot (auto == true) :
      *      * stabilise le plateau,
      *      * calcule le meilleur coup,
      *      * si aucun coup possible → fin du mode bot,
      *      * sinon applique automatiquement ce meilleur coup,
-     *      * relance le jeu sans intervention de l'utilisateur.
+     *      * passe au tour suivant sans intervention de l'utilisateur.
      *
      * @param plateau plateau de jeu (char[n][n]).
      * @param auto    true si le jeu doit être joué automatiquement par le bot,
@@ -457,92 +1670,623 @@ public class CandyCrush {
      * - Ajout du calcul du meilleur coup : O(n⁵) (voir meilleurCoup / simulerCoup).
      */
     public static void jeux(char[][] plateau, boolean auto){
-        int n = plateau.length;
-        char[][] plateau_copie = new char[n][n];
-
-        // Tant que le plateau continue de changer après suppression / chute / remplissage
-        while (differents(plateau_copie, plateau)) {
-            plateau_copie = copieTableau(plateau);
-
-            Ecran.afficherln("Voici le plateau");
-            afficherJeux(plateau);
-            timeSlep(500); // petite pause pour laisser le temps de voir
-
-            plateau = rechercheMotif(plateau);
-            Ecran.afficherln("Plateau sans motif de + de 3 de long");
-            afficherJeux(plateau);
-            timeSlep(500);
-
-            plateau = chute(plateau);
-            Ecran.afficherln("Chute");
-            afficherJeux(plateau);
-            timeSlep(500);
-
-            plateau = remplissage(plateau);
-            Ecran.afficherln("Remplissage du plateau");
-            afficherJeux(plateau);
-            timeSlep(500);
-        }
-
-        // Suggestion de meilleur coup une fois le plateau stabilisé
-        int[] suggestion = meilleurCoup(plateau);
-        if (suggestion[0] != -1) {
-            Ecran.afficherln(">>> MEILLEUR COUP PROPOSÉ : (" +
-                (suggestion[0] + 1) + "," + (suggestion[1] + 1) + ") <-> (" +
-                (suggestion[2] + 1) + "," + (suggestion[3] + 1) + ")");
-        } else {
-            Ecran.afficherln("Aucun coup intéressant détecté.");
-        }
-
-        timeSlep(500);
-
-        if (auto) {
-            // MODE BOT : joue automatiquement le meilleur coup jusqu'à ce qu'il n'y ait plus de coup
-            if (suggestion[0] == -1) {
-                Ecran.afficherln("Plus aucun coup possible, fin du mode automatique.");
-                return;
-            }
-            Ecran.afficherln("Le bot joue ce coup automatiquement...");
-            permutation(suggestion[0], suggestion[1], suggestion[2], suggestion[3], plateau);
-            timeSlep(500);
-            jeux(plateau, true); // relance en mode auto
-        } else {
-            // MODE JOUEUR : on laisse la main à l'utilisateur
-            sortie(); // demande si on continue
-            int[] coords = choixPermutation(plateau.length);
-            permutation(coords[0], coords[1], coords[2], coords[3], plateau);
-            jeux(plateau, false); // relance en mode joueur
-        }
+        jeux(plateau, auto, ThreadLocalRandom.current());
     }
 
     /**
-     * Simule un coup (permutation de deux cases adjacentes) et calcule le score
-     * obtenu par ce coup, en prenant en compte les effets de cascade :
+     * Identique à jeux(plateau, auto), avec un générateur aléatoire explicite
+     * utilisé pour le remplissage et par le bot : avec le même plateau initial,
+     * le même générateur (new SplittableRandom(graine)) et les mêmes coups du
+     * joueur, la partie se déroule exactement de la même façon.
      *
-     * - On travaille sur une copie du plateau pour ne pas modifier l’original.
-     * - On applique la permutation.
-     * - Tant qu'il existe des motifs à supprimer :
-     *   1. On appelle rechercheMotif pour marquer les motifs et les supprimer.
-     *   2. On compte le nombre de bonbons supprimés (suppr) entre l'état "avant"
-     *      et l'état "après".
-     *   3. On ajoute ce nombre au score.
-     *   4. On applique chute puis remplissage pour poursuivre la cascade.
-     * - Dès qu'aucun bonbon n'est supprimé (suppr == 0), la cascade est terminée
-     *   et on retourne le score total.
+     * @param plateau plateau de jeu (char[n][n]).
+     * @param auto    true pour le mode bot, false pour le mode joueur.
+     * @param alea    générateur de la partie.
      *
-     * @param x1      ligne de la première case (0..n-1)
-     * @param y1      colonne de la première case (0..n-1)
-     * @param x2      ligne de la deuxième case (0..n-1)
-     * @param y2      colonne de la deuxième case (0..n-1)
-     * @param plateau le plateau de jeu initial (char[n][n]) avant le coup.
+     * Complexité temporelle : voir jeux(plateau, auto).
+     */
+    public static void jeux(char[][] plateau, boolean auto, RandomGenerator alea){
+        jeux(plateau, auto, alea, new RenduConsole(500));
+    }
+
+    /**
+     * Identique à jeux(plateau, auto, alea), avec un rendu explicite
+     * (RenduConsole, ou RenduAnsi pour ne redessiner que les cases modifiées).
      *
-     * @return le score total obtenu par ce coup (nombre de bonbons supprimés
-     *         sur l’ensemble de la cascade).
+     * @param plateau plateau de jeu (char[n][n]).
+     * @param auto    true pour le mode bot, false pour le mode joueur.
+     * @param alea    générateur de la partie.
+     * @param rendu   affichage des étapes et des messages.
      *
-     * Complexité temporelle (pire cas théorique) :
+     * Complexité temporelle : voir jeux(plateau, auto).
+     */
+    public static void jeux(char[][] plateau, boolean auto, RandomGenerator alea, Rendu rendu){
+        // Règles de la console : un plateau bloqué n'est pas remélangé, le bot
+        // s'arrête et le joueur peut quitter
+        jouerPartie(plateau, joueurConsole(auto, rendu), rendu, alea, Integer.MAX_VALUE, null, null, false);
+    }
+
+    /**
+     * Moteur de partie itératif, commun au mode console et aux parties sans
+     * affichage (bot contre lui-même).
+     *
+     * À chaque tour :
+     * - stabilise le plateau (motifs -> chute -> remplissage) jusqu'à ce qu'il ne
+     *   change plus, en montrant chaque étape au rendu ; supprimerMotifs indique
+     *   les colonnes touchées (plusBasse), chute et remplissage ne parcourent
+     *   qu'elles, et le nombre de cases remplies dit si le plateau a changé,
+     *   sans copie ni comparaison du plateau ;
+     * - prévient l'écouteur (s'il existe) du score et de la profondeur de cascade
+     *   du tour ;
+     * - met à jour l'index des coups jouables (IndexCoups) à partir des seules
+     *   cases modifiées depuis le tour précédent, et le transmet au joueur ;
+     *   s'il n'y a plus aucun coup jouable, remélange le plateau (remelanger),
+     *   pour que les parties sans affichage ne s'arrêtent pas sur un plateau
+     *   bloqué (la console, elle, garde ce plateau : voir jeux) ;
+     * - demande un coup au joueur et l'applique, ou s'arrête si le joueur n'en
+     *   propose plus ou si 'toursMax' coups ont été joués.
+     *
+     * Contrairement à l'ancienne version récursive de jeux, la pile ne grandit
+     * pas avec le nombre de tours : une partie de bot peut durer indéfiniment.
+     * Avec Rendu.AUCUN, il n'y a ni affichage ni pause : la partie va aussi vite
+     * que le calcul.
+     *
+     * @param plateau  plateau de jeu (char[n][n]), modifié au fil de la partie.
+     * @param joueur   fournit le coup de chaque tour (bot, clavier...).
+     * @param rendu    affichage des étapes (RenduConsole, ou Rendu.AUCUN).
+     * @param alea     générateur de la partie (remplissage et bot).
+     * @param toursMax nombre maximal de coups joués.
+     * @param ecouteur appelé à la fin de chaque stabilisation, ou null.
+     *
+     * @return le bilan de la partie (coups joués, score, cascades).
+     *
+     * Complexité temporelle :
+     * - Par tour : O(n²) par étape de cascade, plus le coût du joueur
+     *   (meilleurCoup pour le bot).
+     */
+    public static ResultatPartie jouerPartie(char[][] plateau, Joueur joueur, Rendu rendu,
+                                             RandomGenerator alea, int toursMax, EcouteurTour ecouteur){
+        return jouerPartie(plateau, joueur, rendu, alea, toursMax, ecouteur, null);
+    }
+
+    /**
+     * Identique à jouerPartie(plateau, joueur, rendu, alea, toursMax, ecouteur),
+     * en enregistrant la partie dans 'journal' (voir JournalPartie) : plateau
+     * initial, coups, cases vidées, chutes et bonbons tirés. Le journal n'est pas
+     * fermé.
+     *
+     * @param journal journal de la partie, ou null.
+     *
+     * @throws UncheckedIOException si l'écriture du journal échoue.
+     *
+     * Complexité temporelle : celle de jouerPartie ; le journal ajoute un
+     * parcours des colonnes touchées par étape de cascade.
+     */
+    public static ResultatPartie jouerPartie(char[][] plateau, Joueur joueur, Rendu rendu, RandomGenerator alea,
+                                             int toursMax, EcouteurTour ecouteur, JournalPartie journal){
+        return jouerPartie(plateau, joueur, rendu, alea, toursMax, ecouteur, journal, true);
+    }
+
+    /**
+     * Identique à jouerPartie(plateau, joueur, rendu, alea, toursMax, ecouteur, journal),
+     * en choisissant si un plateau bloqué est remélangé (voir Partie.remelange).
+     *
+     * Complexité temporelle : celle de jouerPartie.
+     */
+    private static ResultatPartie jouerPartie(char[][] plateau, Joueur joueur, Rendu rendu, RandomGenerator alea,
+                                              int toursMax, EcouteurTour ecouteur, JournalPartie journal,
+                                              boolean remelange){
+        try {
+            if (journal != null) {
+                journal.debut(plateau);
+            }
+            return jouerPartieJournal(plateau, joueur, rendu, alea, toursMax, ecouteur, journal, remelange);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Corps de jouerPartie : les erreurs d'écriture du journal remontent telles quelles. */
+    private static ResultatPartie jouerPartieJournal(char[][] plateau, Joueur joueur, Rendu rendu,
+                                                     RandomGenerator alea, int toursMax, EcouteurTour ecouteur,
+                                                     JournalPartie journal, boolean remelange) throws IOException {
+        Partie partie = new Partie(plateau.length);
+        partie.remelange = remelange;
+        partie.commencer(plateau, joueur, rendu, alea, toursMax, ecouteur, journal);
+        while (partie.tour()) {
+            // chaque tour est joué par partie.tour()
+        }
+        return partie.resultat;
+    }
+
+    /**
+     * Partie en cours, jouée tour par tour : c'est la boucle de jouerPartie, dont
+     * l'état (plateau, générateur, index des coups, bilan) est gardé entre deux
+     * appels de tour() au lieu de vivre dans les variables locales d'une boucle.
+     * Un hôte de parties (voir HoteParties) peut ainsi entrelacer des milliers de
+     * parties sur quelques threads, et réutiliser une Partie (plusBasse, tableaux
+     * de l'index) d'une partie à la suivante avec commencer().
+     *
+     * Une Partie n'est utilisée que par un thread à la fois.
+     */
+    static final class Partie {
+
+        final int n;
+        private final int[] plusBasse;
+        private IndexCoups index;        // construit après la première stabilisation
+        private IndexCoups indexRecycle; // index d'une partie précédente, à reconstruire
+
+        private char[][] plateau;
+        private Joueur joueur;
+        private Rendu rendu;
+        private RandomGenerator alea;
+        private int toursMax;
+        private EcouteurTour ecouteur;
+        private JournalPartie journal;
+        ResultatPartie resultat;
+        // true : un plateau bloqué est remélangé (parties sans affichage) ;
+        // false : il est laissé au joueur, qui arrête la partie (console)
+        boolean remelange = true;
+
+        Partie(int n) {
+            this.n = n;
+            this.plusBasse = new int[n];
+        }
+
+        /**
+         * (Re)commence une partie sur 'plateau' (voir jouerPartie pour les
+         * paramètres) ; le bilan repart de zéro.
+         *
+         * Complexité temporelle : O(1).
+         */
+        void commencer(char[][] plateau, Joueur joueur, Rendu rendu, RandomGenerator alea,
+                       int toursMax, EcouteurTour ecouteur, JournalPartie journal) {
+            if (plateau.length != n) {
+                throw new IllegalArgumentException("Plateau " + plateau.length + " x " + plateau.length
+                                                   + " pour une partie " + n + " x " + n);
+            }
+            if (index != null) {
+                indexRecycle = index;
+                index = null;
+            }
+            this.plateau = plateau;
+            this.joueur = joueur;
+            this.rendu = rendu;
+            this.alea = alea;
+            this.toursMax = toursMax;
+            this.ecouteur = ecouteur;
+            this.journal = journal;
+            this.resultat = new ResultatPartie();
+        }
+
+        /**
+         * Joue un tour : stabilise le plateau (cascade), puis demande un coup au
+         * joueur et le joue.
+         *
+         * @return false si la partie est finie (toursMax atteint ou plus de coup
+         *         du joueur) : le bilan est alors dans 'resultat'.
+         *
+         * Complexité temporelle : voir jouerPartie, par tour.
+         */
+        boolean tour() throws IOException {
+            int scoreTour = 0;
+            int cascade = 0;
+
+            // Tant que le plateau continue de changer après suppression / chute / remplissage :
+            // il a changé si des cases ont été vidées, donc remplies
+            int remplies;
+            do {
+                rendu.etape("Voici le plateau", plateau);
+
+                int suppr = supprimerMotifs(plateau, plusBasse);
+                rendu.etape("Plateau sans motif de + de 3 de long", plateau);
+                if (index != null) {
+                    index.signalerColonnes(plusBasse); // zone touchée par chute et remplissage
+                }
+                if (journal != null) {
+                    journal.suppression(plateau, plusBasse);
+                }
+
+                chute(plateau, plusBasse);
+                rendu.etape("Chute", plateau);
+                if (journal != null) {
+                    journal.chute(plusBasse);
+                }
+
+                remplies = remplissage(plateau, plusBasse, alea);
+                rendu.etape("Remplissage du plateau", plateau);
+                if (journal != null) {
+                    journal.remplissage(plateau);
+                }
+
+                if (suppr > 0) {
+                    scoreTour += suppr;
+                    cascade++;
+                }
+            } while (remplies > 0);
+
+            // Le tour 0 est la stabilisation du plateau initial : il ne compte pas
+            if (resultat.tours > 0) {
+                resultat.score += scoreTour;
+                resultat.etapesCascade += cascade;
+                resultat.cascadeMax = Math.max(resultat.cascadeMax, cascade);
+                if (Metriques.actives) Metriques.PROFONDEUR_CASCADE.enregistrer(cascade);
+            }
+            if (ecouteur != null) {
+                ecouteur.apresTour(resultat.tours, plateau, scoreTour, cascade);
+            }
+            if (journal != null) {
+                journal.tour(scoreTour, cascade);
+            }
+
+            if (resultat.tours >= toursMax) {
+                return false;
+            }
+            if (index == null) { // première stabilisation de la partie
+                index = (indexRecycle != null) ? indexRecycle.reconstruire(plateau) : new IndexCoups(plateau);
+            } else {
+                index.mettreAJour(plateau);
+            }
+            if (remelange && !index.existeCoup()) {
+                // Plateau bloqué : remélangé sur place au lieu de finir la partie
+                remelanger(plateau, alea);
+                resultat.remelanges++;
+                rendu.etape("Plus aucun coup possible : plateau remélangé", plateau);
+                if (journal != null) {
+                    journal.remelange(plateau);
+                }
+                index.reconstruire(plateau);
+            }
+            long debutNs = Metriques.debut();
+            int[] coup = joueur.choisirCoup(plateau, index, alea);
+            if (debutNs != 0) Metriques.COUP_JOUEUR.depuis(debutNs);
+            if (coup == null) {
+                return false;
+            }
+            permutation(coup[0], coup[1], coup[2], coup[3], plateau);
+            if (journal != null) {
+                journal.coup(coup);
+            }
+            index.signaler(coup[0], coup[1]);
+            index.signaler(coup[2], coup[3]);
+            resultat.tours++;
+            return true;
+        }
+    }
+
+    /**
+     * Joueur du mode console (ancien comportement de jeux) : affiche le meilleur
+     * coup proposé, puis
+     * - en mode bot, le joue automatiquement (ou arrête s'il n'y en a plus) ;
+     * - en mode joueur, demande si l'on continue et lit la permutation au clavier.
+     *
+     * Complexité temporelle : dominée par meilleurCoup.
+     */
+    private static Joueur joueurConsole(boolean auto, Rendu rendu) {
+        return (plateau, alea) -> {
+            // Suggestion de meilleur coup une fois le plateau stabilisé
+            int[] suggestion = meilleurCoup(plateau, null, alea);
+            if (suggestion[0] != -1) {
+                rendu.message(">>> MEILLEUR COUP PROPOSÉ : (" +
+                    (suggestion[0] + 1) + "," + (suggestion[1] + 1) + ") <-> (" +
+                    (suggestion[2] + 1) + "," + (suggestion[3] + 1) + ")");
+            } else {
+                rendu.message("Aucun coup intéressant détecté.");
+            }
+            rendu.pause();
+
+            if (auto) {
+                // MODE BOT : joue automatiquement le meilleur coup jusqu'à ce qu'il n'y ait plus de coup
+                if (suggestion[0] == -1) {
+                    rendu.message("Plus aucun coup possible, fin du mode automatique.");
+                    return null;
+                }
+                rendu.message("Le bot joue ce coup automatiquement...");
+                rendu.pause();
+                return suggestion;
+            }
+
+            // MODE JOUEUR : on laisse la main à l'utilisateur
+            sortie(); // demande si on continue
+            return choixPermutation(plateau.length);
+        };
+    }
+
+    /**
+     * Joueur bot sans affichage : joue le meilleur coup de meilleurCoup, et arrête
+     * la partie quand aucun coup ne supprime plus de bonbon.
+     *
+     * Dans jouerPartie, il utilise l'index des coups jouables (IndexCoups) : même
+     * coup, mais seuls les coups jouables sont simulés, sans parcourir le plateau.
+     *
+     * @return un joueur utilisable par jouerPartie.
+     *
+     * Complexité temporelle : celle de meilleurCoup, à chaque tour.
+     */
+    public static Joueur bot() {
+        return new Joueur() {
+            @Override
+            public int[] choisirCoup(char[][] plateau, RandomGenerator alea) {
+                int[] coup = meilleurCoup(plateau, null, alea);
+                return (coup[0] == -1) ? null : coup;
+            }
+
+            @Override
+            public int[] choisirCoup(char[][] plateau, IndexCoups index, RandomGenerator alea) {
+                int[] coup = index.meilleurCoup(plateau, alea);
+                return (coup[0] == -1) ? null : coup;
+            }
+        };
+    }
+
+    /**
+     * Joueur bot qui regarde plusieurs coups à l'avance (voir RechercheProfondeur)
+     * au lieu de jouer le coup glouton de meilleurCoup.
+     *
+     * @param profondeur nombre de coups enchaînés évalués (1 : même coup que bot()).
+     * @param largeur    nombre de coups explorés en profondeur à chaque position.
+     *
+     * @return un joueur utilisable par jouerPartie (une recherche par joueur :
+     *         ne pas le partager entre threads).
+     *
+     * Complexité temporelle : voir RechercheProfondeur.meilleurCoup, à chaque tour.
+     */
+    public static Joueur bot(int profondeur, int largeur) {
+        RechercheProfondeur recherche = new RechercheProfondeur(profondeur, largeur, 0);
+        return (plateau, alea) -> {
+            int[] coup = recherche.meilleurCoup(plateau, alea);
+            return (coup[0] == -1) ? null : coup;
+        };
+    }
+
+    /**
+     * Joueur bot qui choisit le coup de meilleur score moyen sur K simulations
+     * (voir monteCarlo), au lieu d'une seule simulation par coup.
+     *
+     * @param K        nombre maximal de simulations par coup.
+     * @param budgetMs budget de temps par coup en ms, 0 pour aucun.
+     *
+     * @return un joueur utilisable par jouerPartie.
+     *
+     * Complexité temporelle : voir monteCarlo, à chaque tour.
+     */
+    public static Joueur botMonteCarlo(int K, long budgetMs) {
+        return (plateau, alea) -> {
+            int[] coup = monteCarlo(plateau, K, budgetMs, alea).meilleurCoup();
+            return (coup[0] == -1) ? null : coup;
+        };
+    }
+
+    /**
+     * Joueur bot à latence bornée : joue le coup de meilleurCoupAvant avec une
+     * échéance de 'budgetMs' après le début de chaque tour, quelle que soit la
+     * taille du plateau.
+     *
+     * @param budgetMs budget de temps par coup en ms.
+     *
+     * @return un joueur utilisable par jouerPartie.
+     *
+     * Complexité temporelle : O(n²) plus le budget, à chaque tour.
+     */
+    public static Joueur botBorne(long budgetMs) {
+        return (plateau, alea) -> {
+            long echeance = System.nanoTime() + budgetMs * 1_000_000L;
+            int[] coup = meilleurCoupAvant(plateau, echeance, null, alea).meilleurCoup();
+            return (coup[0] == -1) ? null : coup;
+        };
+    }
+
+    /**
+     * Fournit le coup à jouer à chaque tour de jouerPartie.
+     */
+    interface Joueur {
+        /**
+         * @param plateau plateau stabilisé (à ne pas modifier).
+         * @param alea    générateur de la partie.
+         *
+         * @return le coup {x1, y1, x2, y2} à jouer, ou null pour arrêter la partie.
+         */
+        int[] choisirCoup(char[][] plateau, RandomGenerator alea);
+
+        /**
+         * Variante appelée par jouerPartie, qui fournit aussi l'index des coups
+         * jouables du plateau, à jour. Par défaut, l'index est ignoré.
+         *
+         * @param index coups jouables de 'plateau' (à ne pas modifier).
+         */
+        default int[] choisirCoup(char[][] plateau, IndexCoups index, RandomGenerator alea) {
+            return choisirCoup(plateau, alea);
+        }
+    }
+
+    /**
+     * Affichage des étapes d'une partie. Rendu.AUCUN n'affiche rien et ne fait
+     * aucune pause (parties sans affichage).
+     */
+    interface Rendu {
+
+        Rendu AUCUN = new Rendu() {
+            @Override public void etape(String titre, char[][] plateau) { }
+            @Override public void message(String texte) { }
+            @Override public void pause() { }
+        };
+
+        /** Montre un état intermédiaire du plateau. */
+        void etape(String titre, char[][] plateau);
+
+        /** Affiche un message (coup proposé, fin de partie...). */
+        void message(String texte);
+
+        /** Laisse au joueur le temps de lire. */
+        void pause();
+    }
+
+    /**
+     * Rendu console animé : titre + afficherJeux + pause après chaque étape.
+     * Le titre et la grille sont écrits en une seule fois.
+     */
+    static final class RenduConsole implements Rendu {
+
+        private final int pauseMs;
+
+        RenduConsole(int pauseMs) {
+            this.pauseMs = pauseMs;
+        }
+
+        @Override
+        public void etape(String titre, char[][] plateau) {
+            StringBuilder image = new StringBuilder(4 * (plateau.length + 5) * (plateau.length + 4));
+            image.append(titre).append(System.lineSeparator());
+            dessinerJeux(plateau, image);
+            Ecran.afficher(image);
+            pause(); // petite pause pour laisser le temps de voir
+        }
+
+        @Override
+        public void message(String texte) {
+            Ecran.afficherln(texte);
+        }
+
+        @Override
+        public void pause() {
+            timeSlep(pauseMs);
+        }
+    }
+
+    /**
+     * Rendu console différentiel pour les terminaux ANSI : la grille reste en
+     * place en haut de l'écran et, d'une étape à l'autre de la cascade
+     * (motifs -> chute -> remplissage), seules les cases qui ont changé sont
+     * réécrites, en plaçant le curseur dessus.
+     *
+     * - La première étape, et la première qui suit un message ou une saisie
+     *   (l'écran a pu défiler), efface l'écran et dessine la grille entière.
+     * - Chaque image (titre + cases modifiées) est construite dans un tampon
+     *   réutilisé et écrite en une seule fois.
+     *
+     * Disposition à l'écran (lignes numérotées à partir de 1) : titre en
+     * ligne 1, indices de colonnes en ligne 2, séparation en ligne 3, puis la
+     * ligne i du plateau en ligne i + 4, séparation du bas en ligne n + 4 ; la case (i, j) est en colonne
+     * longueur("i+1 | ") + 2j + 1, comme dans afficherJeux.
+     */
+    static final class RenduAnsi implements Rendu {
+
+        private static final String ECHAP = "\u001b[";
+
+        private final int pauseMs;
+        private final StringBuilder image = new StringBuilder();
+        private char[][] affiche;          // ce qui est à l'écran (réutilisé à chaque redessin), ou null
+        private boolean redessiner = true; // l'écran a pu défiler depuis la dernière image
+
+        RenduAnsi(int pauseMs) {
+            this.pauseMs = pauseMs;
+        }
+
+        /**
+         * Complexité temporelle :
+         * - O(n²) pour comparer le plateau à l'image précédente, plus la taille
+         *   du texte écrit : O(cases modifiées) hors redessin complet ; la copie
+         *   de l'écran n'est réallouée que si la taille du plateau change.
+         */
+        @Override
+        public void etape(String titre, char[][] plateau) {
+            int n = plateau.length;
+            image.setLength(0);
+
+            if (redessiner || affiche == null || affiche.length != n) {
+                image.append(ECHAP).append("H").append(ECHAP).append("2J");
+                image.append(titre).append(System.lineSeparator());
+                dessinerJeux(plateau, image);
+                if (affiche == null || affiche.length != n) {
+                    affiche = new char[n][n]; // sinon, recopié par-dessus l'image précédente
+                }
+                copierDans(plateau, affiche);
+                redessiner = false;
+            } else {
+                image.append(ECHAP).append("1;1H").append(ECHAP).append("2K").append(titre);
+                for (int i = 0; i < n; i++) {
+                    char[] ligne = plateau[i];
+                    char[] ecran = affiche[i];
+                    int marge = Integer.toString(i + 1).length() + 3;
+                    for (int j = 0; j < n; j++) {
+                        if (ligne[j] != ecran[j]) {
+                            image.append(ECHAP).append(i + 4).append(';').append(marge + 2 * j + 1).append('H')
+                                 .append(ligne[j]);
+                            ecran[j] = ligne[j];
+                        }
+                    }
+                }
+                // curseur sous la grille, là où s'écrivent messages et saisies
+                image.append(ECHAP).append(n + 5).append(";1H");
+            }
+
+            Ecran.afficher(image);
+            pause();
+        }
+
+        @Override
+        public void message(String texte) {
+            Ecran.afficherln(texte);
+            redessiner = true;
+        }
+
+        @Override
+        public void pause() {
+            timeSlep(pauseMs);
+        }
+    }
+
+    /**
+     * Appelé par jouerPartie à la fin de chaque tour (après stabilisation).
+     */
+    interface EcouteurTour {
+        /**
+         * @param tour      numéro du tour (0 : stabilisation du plateau initial).
+         * @param plateau   plateau stabilisé (à ne pas modifier).
+         * @param scoreTour bonbons supprimés pendant la cascade de ce tour.
+         * @param cascade   nombre d'étapes de la cascade qui ont supprimé des bonbons.
+         */
+        void apresTour(int tour, char[][] plateau, int scoreTour, int cascade);
+    }
+
+    /**
+     * Bilan d'une partie jouée par jouerPartie (le tour 0 n'est pas compté).
+     */
+    static final class ResultatPartie {
+        int tours;          // coups joués
+        long score;         // bonbons supprimés par les cascades des coups joués
+        long etapesCascade; // somme des profondeurs de cascade
+        int cascadeMax;     // plus longue cascade d'un coup
+        int remelanges;     // plateaux bloqués remélangés (voir remelanger)
+    }
+
+    /**
+     * Simule un coup (permutation de deux cases adjacentes) et calcule le score
+     * obtenu par ce coup, en prenant en compte les effets de cascade :
+     *
+     * - On travaille sur une copie du plateau pour ne pas modifier l’original.
+     * - On applique la permutation.
+     * - Tant qu'il existe des motifs à supprimer :
+     *   1. On appelle supprimerMotifs pour marquer les motifs et les supprimer.
+     *   2. supprimerMotifs retourne directement le nombre de bonbons supprimés
+     *      (suppr), sans copie "avant" / "après" du plateau.
+     *   3. On ajoute ce nombre au score.
+     *   4. On applique chute puis remplissage pour poursuivre la cascade.
+     * - Dès qu'aucun bonbon n'est supprimé (suppr == 0), la cascade est terminée
+     *   et on retourne le score total.
+     *
+     * @param x1      ligne de la première case (0..n-1)
+     * @param y1      colonne de la première case (0..n-1)
+     * @param x2      ligne de la deuxième case (0..n-1)
+     * @param y2      colonne de la deuxième case (0..n-1)
+     * @param plateau le plateau de jeu initial (char[n][n]) avant le coup.
+     *
+     * @return le score total obtenu par ce coup (nombre de bonbons supprimés
+     *         sur l’ensemble de la cascade).
+     *
+     * Complexité temporelle (pire cas théorique) :
      * - À chaque itération de la boucle while :
-     *   * rechercheMotif : O(n²)
-     *   * comptage des suppressions : O(n²)
+     *   * supprimerMotifs (détection + comptage) : O(n²)
      *   * chute : O(n²)
      *   * remplissage : O(n²)
      *   ⇒ chaque cycle de cascade : O(n²).
@@ -550,182 +2294,5053 @@ public class CandyCrush {
      *   d'où une majoration théorique en O(n³).
      */
     public static int simulerCoup(int x1, int y1, int x2, int y2, char[][] plateau) {
+        return simulerCoup(x1, y1, x2, y2, plateau,
+                           new char[plateau.length][plateau.length], ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à simulerCoup, mais la copie du plateau est faite dans un
+     * tableau de travail fourni par l'appelant (réutilisé d'un coup à l'autre),
+     * et les bonbons de remplissage sont tirés avec le générateur 'alea' : à
+     * générateur identique, la cascade et le score sont identiques.
+     *
+     * @param temp tableau de travail (char[n][n]), écrasé par la simulation.
+     * @param alea générateur utilisé par remplissage pendant la cascade.
+     *
+     * Complexité temporelle : identique à simulerCoup.
+     */
+    public static int simulerCoup(int x1, int y1, int x2, int y2, char[][] plateau,
+                                  char[][] temp, RandomGenerator alea) {
+        long debutNs = Metriques.debut();
+
+        // copie du plateau pour ne rien modifier
+        copierDans(plateau, temp);
+
+        // application de la permutation sur la copie
+        permutation(x1, y1, x2, y2, temp);
+
+        int score = 0;
+        int[] plusBasse = PlateauBits.pour(temp.length).plusBasse; // colonnes touchées
+
+        // On répète jusqu'à ce qu'il n'y ait plus de bonbons supprimés
+        while (true) {
+            // suppression des motifs et comptage des bonbons supprimés à cette étape
+            int suppr = supprimerMotifs(temp, plusBasse);
+
+            // s'il n'y a plus de bonbons supprimés, la cascade est terminée
+            if (suppr == 0) break;
+
+            // ajout des suppressions de cette étape au score total
+            score += suppr;
+
+            // On applique la chute et le remplissage aux seules colonnes touchées
+            chute(temp, plusBasse);
+            remplissage(temp, plusBasse, alea);
+        }
+
+        if (debutNs != 0) Metriques.SIMULATION.depuis(debutNs);
+        return score;
+    }
+
+    /**
+     * Variante de simulerCoup pour un plateau stable (sans motif avant le coup),
+     * qui ne rescanne que les cases susceptibles de former un motif :
+     *
+     * - Première étape : seul un motif passant par (x1, y1) ou (x2, y2) peut
+     *   apparaître, on ne regarde donc que les lignes et colonnes de ces deux cases.
+     * - Étapes suivantes de la cascade : dans chaque colonne touchée, seules les
+     *   cases au-dessus de la plus basse case supprimée ont bougé (chute) ou ont
+     *   été remplies (remplissage) ; tout motif nouveau passe forcément par l'une
+     *   d'elles, on ne rescanne donc que cette zone.
+     *
+     * Les appels à chute et remplissage sont les mêmes que dans simulerCoup, dans
+     * le même ordre : pour un plateau stable, le résultat est identique.
+     *
+     * C'est la version char[][] de la détection locale, celle qu'utilise
+     * RechercheProfondeur pour construire les positions suivantes ; meilleurCoup
+     * et meilleurCoupParallele utilisent sa reprise sur plateau à plat
+     * (SimulationPlate).
+     *
+     * @param x1      ligne de la première case (0..n-1)
+     * @param y1      colonne de la première case (0..n-1)
+     * @param x2      ligne de la deuxième case (0..n-1)
+     * @param y2      colonne de la deuxième case (0..n-1)
+     * @param plateau le plateau de jeu (char[n][n]), supposé stable : sans motif
+     *                ni case vide (voir estStable).
+     *
+     * @return le score total obtenu par ce coup (nombre de bonbons supprimés
+     *         sur l’ensemble de la cascade).
+     *
+     * Complexité temporelle :
+     * - Première détection : O(longueur des séries autour des deux cases) ≈ O(1).
+     * - Détections suivantes, chute et remplissage : proportionnels à la zone qui
+     *   a bougé (colonnes touchées, lignes au-dessus de la plus basse case vidée),
+     *   et non plus à n².
+     */
+    public static int simulerCoupLocal(int x1, int y1, int x2, int y2, char[][] plateau) {
+        return simulerCoupLocal(x1, y1, x2, y2, plateau,
+                                new char[plateau.length][plateau.length], ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à simulerCoupLocal, avec un tableau de travail et un générateur
+     * fournis par l'appelant (voir simulerCoup(x1, y1, x2, y2, plateau, temp, alea)).
+     *
+     * @param temp tableau de travail (char[n][n]), écrasé par la simulation.
+     * @param alea générateur utilisé par remplissage pendant la cascade.
+     *
+     * Complexité temporelle : identique à simulerCoupLocal.
+     */
+    public static int simulerCoupLocal(int x1, int y1, int x2, int y2, char[][] plateau,
+                                       char[][] temp, RandomGenerator alea) {
+        return simulerCoupLocal(x1, y1, x2, y2, plateau, temp, alea, null);
+    }
+
+    /**
+     * Identique à simulerCoupLocal(x1, y1, x2, y2, plateau, temp, alea), en
+     * indiquant aussi la zone que la cascade a modifiée : pour chaque colonne c,
+     * les cases des lignes 0..modifiee[c] (aucune si modifiee[c] = -1) ; hors de
+     * cette zone et des deux cases permutées, temp est identique à plateau (voir
+     * EmpreinteZobrist.apresCoup).
+     *
+     * @param modifiee tableau de taille n (ou null), rempli de -1 par l'appelant,
+     *                 où chaque colonne reçoit la plus basse ligne modifiée.
+     *
+     * Complexité temporelle : identique à simulerCoupLocal, plus O(n) par étape.
+     */
+    static int simulerCoupLocal(int x1, int y1, int x2, int y2, char[][] plateau,
+                                char[][] temp, RandomGenerator alea, int[] modifiee) {
+        long debutNs = Metriques.debut();
+
+        // copie du plateau pour ne rien modifier
+        copierDans(plateau, temp);
+        permutation(x1, y1, x2, y2, temp);
+
+        // seules les deux cases permutées peuvent démarrer un motif
+        DetecteurLocal zone = DetecteurLocal.pour(temp.length);
+        zone.vider();
+        zone.salir(x1, y1);
+        zone.salir(x2, y2);
+
+        int score = 0;
+        while (true) {
+            int suppr = zone.supprimer(temp);
+            if (suppr == 0) break;
+
+            score += suppr;
+            if (modifiee != null) {
+                for (int c = 0; c < modifiee.length; c++) {
+                    modifiee[c] = Math.max(modifiee[c], zone.fin[c]);
+                }
+            }
+            chute(temp, zone.fin);
+            remplissage(temp, zone.fin, alea);
+        }
+
+        if (debutNs != 0) Metriques.SIMULATION.depuis(debutNs);
+        return score;
+    }
+
+    /**
+     * Détecteur de motifs restreint à une zone "sale" du plateau.
+     *
+     * La zone est décrite colonne par colonne par un intervalle de lignes
+     * [debut[c], fin[c]] (vide si fin[c] < debut[c]). Seules les séries passant par
+     * une case de la zone sont cherchées ; après suppression, la zone devient
+     * pour chaque colonne l'intervalle [0, plus basse case supprimée], c'est-à-dire
+     * les cases que chute et remplissage vont modifier.
+     *
+     * Une instance est réutilisée par thread, comme PlateauBits.
+     */
+    static final class DetecteurLocal {
+
+        private static final ThreadLocal<DetecteurLocal> PAR_THREAD = new ThreadLocal<>();
+
+        final int n;
+        final int[] debut, fin;        // zone sale, par colonne
+        private final boolean[] marque; // cases à supprimer (indice l * n + c)
+        private final int[] marquees;   // liste des cases marquées
+        private int nbMarquees;
+
+        DetecteurLocal(int n) {
+            this.n = n;
+            this.debut = new int[n];
+            this.fin = new int[n];
+            this.marque = new boolean[n * n];
+            this.marquees = new int[n * n];
+        }
+
+        /**
+         * Retourne l'instance du thread courant, (re)créée si la taille change.
+         *
+         * Complexité temporelle : O(1) (hors création, O(n²)).
+         */
+        static DetecteurLocal pour(int n) {
+            DetecteurLocal zone = PAR_THREAD.get();
+            if (zone == null || zone.n != n) {
+                zone = new DetecteurLocal(n);
+                PAR_THREAD.set(zone);
+            }
+            return zone;
+        }
+
+        /**
+         * Vide la zone sale. Complexité temporelle : O(n).
+         */
+        void vider() {
+            Arrays.fill(debut, n);
+            Arrays.fill(fin, -1);
+        }
+
+        /**
+         * Ajoute la case (l, c) à la zone sale. Complexité temporelle : O(1).
+         */
+        void salir(int l, int c) {
+            debut[c] = Math.min(debut[c], l);
+            fin[c] = Math.max(fin[c], l);
+        }
+
+        /**
+         * Supprime (remplace par '-') toutes les séries d'au moins 3 bonbons
+         * identiques passant par la zone sale, puis remplace la zone par celle que
+         * la chute va modifier.
+         *
+         * @return le nombre de bonbons supprimés.
+         *
+         * Complexité temporelle : O(taille de la zone + longueur des séries).
+         */
+        int supprimer(char[][] jeux) {
+            nbMarquees = 0;
+
+            for (int c = 0; c < n; c++) {
+                int l = debut[c];
+                while (l <= fin[c]) {
+                    char bonbon = jeux[l][c];
+                    if (bonbon == '-') {
+                        l++;
+                        continue;
+                    }
+
+                    // Série horizontale passant par (l, c)
+                    int gauche = c, droite = c;
+                    while (gauche > 0 && jeux[l][gauche - 1] == bonbon) gauche--;
+                    while (droite < n - 1 && jeux[l][droite + 1] == bonbon) droite++;
+                    if (droite - gauche >= 2) {
+                        for (int j = gauche; j <= droite; j++) marquer(l, j);
+                    }
+
+                    // Série verticale passant par (l, c)
+                    int haut = l, bas = l;
+                    while (haut > 0 && jeux[haut - 1][c] == bonbon) haut--;
+                    while (bas < n - 1 && jeux[bas + 1][c] == bonbon) bas++;
+                    if (bas - haut >= 2) {
+                        for (int i = haut; i <= bas; i++) marquer(i, c);
+                    }
+
+                    // une case déjà marquée n'est jamais comptée deux fois (voir marquer)
+                    l++;
+                }
+            }
+
+            // Suppression effective et nouvelle zone : [0, plus basse case supprimée]
+            Arrays.fill(debut, 0);
+            Arrays.fill(fin, -1);
+            for (int k = 0; k < nbMarquees; k++) {
+                int idx = marquees[k];
+                int l = idx / n, c = idx % n;
+                jeux[l][c] = '-';
+                marque[idx] = false;
+                fin[c] = Math.max(fin[c], l);
+            }
+            return nbMarquees;
+        }
+
+        /**
+         * Marque la case (l, c) si elle ne l'est pas déjà. Complexité : O(1).
+         */
+        private void marquer(int l, int c) {
+            int idx = l * n + c;
+            if (!marque[idx]) {
+                marque[idx] = true;
+                marquees[nbMarquees++] = idx;
+            }
+        }
+    }
+
+    /**
+     * Plateau "à plat" : les n x n cases sont stockées dans un seul tableau byte[],
+     * ligne par ligne (case (l, c) à l'indice l * n + c), au lieu de n tableaux
+     * char[] séparés.
+     *
+     * Chaque case contient un code : 0..4 pour {'C', 'A', 'N', 'D', 'Y'} (même ordre
+     * que PlateauBits.BONBONS et que la liste de remplissage), VIDE pour '-', et 6 ou
+     * plus pour tout autre caractère rencontré au chargement (alphabet propre au
+     * plateau), ce qui garde exactement la sémantique "caractères égaux" de char[][].
+     *
+     * Les adaptateurs charger / versTableau permettent de passer de l'API char[][]
+     * (afficherJeux, mode interactif) à ce format et inversement.
+     */
+    static final class PlateauPlat {
+
+        static final byte VIDE = 5;
+        private static final int CODES_FIXES = 6;
+        private static final byte[] CODE_FIXE = new byte[128];
+        static {
+            Arrays.fill(CODE_FIXE, (byte) -1);
+            for (int t = 0; t < PlateauBits.BONBONS.length; t++) {
+                CODE_FIXE[PlateauBits.BONBONS[t]] = (byte) t;
+            }
+            CODE_FIXE['-'] = VIDE;
+        }
+
+        final int n;
+        final byte[] cases;
+        private final char[] alphabet = new char[Byte.MAX_VALUE + 1]; // code -> caractère
+        private int nbCodes;
+
+        PlateauPlat(int n) {
+            this.n = n;
+            this.cases = new byte[n * n];
+            System.arraycopy(PlateauBits.BONBONS, 0, alphabet, 0, PlateauBits.BONBONS.length);
+            alphabet[VIDE] = '-';
+            nbCodes = CODES_FIXES;
+        }
+
+        /**
+         * Crée un plateau à plat à partir d'un plateau char[n][n].
+         *
+         * Complexité temporelle : O(n²).
+         */
+        static PlateauPlat depuis(char[][] jeux) {
+            PlateauPlat plat = new PlateauPlat(jeux.length);
+            plat.charger(jeux);
+            return plat;
+        }
+
+        /**
+         * Recopie un plateau char[n][n] (de même taille) dans ce plateau, sans allocation.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        void charger(char[][] jeux) {
+            nbCodes = CODES_FIXES;
+            for (int l = 0; l < n; l++) {
+                char[] ligne = jeux[l];
+                int base = l * n;
+                for (int c = 0; c < n; c++) {
+                    cases[base + c] = code(ligne[c]);
+                }
+            }
+        }
+
+        /**
+         * Code d'un caractère ; un caractère inconnu reçoit le prochain code libre.
+         *
+         * Complexité temporelle : O(1) pour les bonbons, O(nombre de codes) sinon.
+         */
+        private byte code(char ch) {
+            if (ch < CODE_FIXE.length && CODE_FIXE[ch] >= 0) {
+                return CODE_FIXE[ch];
+            }
+            for (int k = CODES_FIXES; k < nbCodes; k++) {
+                if (alphabet[k] == ch) {
+                    return (byte) k;
+                }
+            }
+            if (nbCodes == alphabet.length) {
+                throw new IllegalArgumentException("Trop de caractères différents sur le plateau");
+            }
+            alphabet[nbCodes] = ch;
+            return (byte) nbCodes++;
+        }
+
+        /**
+         * Écrit ce plateau dans un tableau char[n][n] existant.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        char[][] versTableau(char[][] jeux) {
+            for (int l = 0; l < n; l++) {
+                for (int c = 0; c < n; c++) {
+                    jeux[l][c] = alphabet[cases[l * n + c]];
+                }
+            }
+            return jeux;
+        }
+
+        /**
+         * Retourne une copie de ce plateau au format char[n][n].
+         *
+         * Complexité temporelle : O(n²).
+         */
+        char[][] versTableau() {
+            return versTableau(new char[n][n]);
+        }
+
+        /**
+         * Recopie un plateau de même taille dans celui-ci, sans allocation.
+         *
+         * Complexité temporelle : O(n²), en une seule copie de tableau.
+         */
+        void copierDe(PlateauPlat autre) {
+            System.arraycopy(autre.cases, 0, cases, 0, cases.length);
+            if (autre.nbCodes > CODES_FIXES) {
+                System.arraycopy(autre.alphabet, CODES_FIXES, alphabet, CODES_FIXES, autre.nbCodes - CODES_FIXES);
+            }
+            nbCodes = autre.nbCodes;
+        }
+
+        /**
+         * Échange le contenu des cases d'indices a et b.
+         *
+         * Complexité temporelle : O(1).
+         */
+        void permuter(int a, int b) {
+            byte temporaire = cases[a];
+            cases[a] = cases[b];
+            cases[b] = temporaire;
+        }
+    }
+
+    /**
+     * Générateur SplitMix64 réinitialisable (même fonction de mélange que SplittableRandom),
+     * mais une seule instance peut être réutilisée d'une simulation à l'autre
+     * (reinitialiser) au lieu d'allouer un nouveau générateur par coup.
+     */
+    static final class GenerateurSplitMix implements RandomGenerator {
+
+        private static final long GAMMA = 0x9E3779B97F4A7C15L;
+        private long etat;
+
+        GenerateurSplitMix(long graine) {
+            this.etat = graine;
+        }
+
+        /** Repart de la graine donnée. Complexité temporelle : O(1). */
+        void reinitialiser(long graine) {
+            this.etat = graine;
+        }
+
+        @Override
+        public long nextLong() {
+            return melanger(etat += GAMMA);
+        }
+    }
+
+    /**
+     * Simulation de coups sur plateaux à plat, sans aucune allocation après la
+     * création de l'instance (une par thread, voir pour()).
+     *
+     * Elle reprend la cascade de simulerCoupLocal (zone sale par colonne, suppression,
+     * chute, remplissage) avec les mêmes règles et le même ordre de tirage que
+     * chute et remplissage : à générateur identique, le score est le même que
+     * celui de simulerCoup sur le plateau char[][] équivalent. En plus, chute et
+     * remplissage ne touchent que les colonnes de la zone sale.
+     */
+    static final class SimulationPlate {
+
+        private static final ThreadLocal<SimulationPlate> PAR_THREAD = new ThreadLocal<>();
+
+        final int n;
+        final PlateauPlat source;   // plateau de référence du thread (voir meilleurCoup)
+        final PlateauPlat temp;     // plateau de travail de la simulation
+        private final int[] debut, fin;       // zone sale, par colonne
+        private final int[] colonnes;         // colonnes de la zone sale, dans l'ordre
+        private int nbColonnes;
+        private final boolean[] marque;       // cases à supprimer
+        private final int[] marquees;
+        private int nbMarquees;
+        private final GenerateurSplitMix alea = new GenerateurSplitMix(0);
+
+        SimulationPlate(int n) {
+            this.n = n;
+            this.source = new PlateauPlat(n);
+            this.temp = new PlateauPlat(n);
+            this.debut = new int[n];
+            this.fin = new int[n];
+            this.colonnes = new int[n];
+            this.marque = new boolean[n * n];
+            this.marquees = new int[n * n];
+        }
+
+        /**
+         * Retourne l'instance du thread courant, (re)créée si la taille change.
+         *
+         * Complexité temporelle : O(1) (hors création, O(n²)).
+         */
+        static SimulationPlate pour(int n) {
+            SimulationPlate simulation = PAR_THREAD.get();
+            if (simulation == null || simulation.n != n) {
+                simulation = new SimulationPlate(n);
+                PAR_THREAD.set(simulation);
+            }
+            return simulation;
+        }
+
+        /**
+         * Simule la permutation des cases d'indices a et b de 'plateau' et retourne
+         * le score de la cascade (nombre de bonbons supprimés).
+         *
+         * @param plateau    plateau de départ (non modifié).
+         * @param a          indice (l * n + c) de la première case.
+         * @param b          indice de la deuxième case, adjacente.
+         * @param stable     true si 'plateau' ne contient aucun motif : la première
+         *                   détection se limite alors aux deux cases permutées.
+         * @param graineCoup graine du générateur de remplissage de cette simulation.
+         *
+         * Complexité temporelle : O(n²) pour la copie, puis proportionnelle aux
+         * zones modifiées à chaque étape de la cascade.
+         */
+        int simuler(PlateauPlat plateau, int a, int b, boolean stable, long graineCoup) {
+            long debutNs = Metriques.debut();
+            temp.copierDe(plateau);
+            temp.permuter(a, b);
+            alea.reinitialiser(graineCoup);
+
+            if (stable) {
+                Arrays.fill(debut, n);
+                Arrays.fill(fin, -1);
+                salir(a / n, a % n);
+                salir(b / n, b % n);
+            } else {
+                Arrays.fill(debut, 0);
+                Arrays.fill(fin, n - 1);
+            }
+
+            int score = 0;
+            boolean premiere = true;
+            while (true) {
+                int suppr = supprimer();
+                if (premiere && !stable) {
+                    zoneDesVides(); // des '-' pouvaient exister avant le coup
+                }
+                premiere = false;
+                if (suppr == 0) break;
+
+                score += suppr;
+                chute();
+                remplissage();
+            }
+            if (debutNs != 0) Metriques.SIMULATION.depuis(debutNs);
+            return score;
+        }
+
+        /**
+         * Bonbons interdits en (i, j) : même règle que bonbonAutorise, sur les codes
+         * (seuls les codes 0..4 sont des bonbons ; VIDE et les autres codes ne
+         * forment pas de série interdite).
+         *
+         * Complexité temporelle : O(1).
+         */
+        private int interdits(byte[] cases, int i, int j) {
+            int indice = i * n + j;
+            int g1 = (j >= 1) ? cases[indice - 1] : -1, g2 = (j >= 2) ? cases[indice - 2] : -2;
+            int d1 = (j + 1 < n) ? cases[indice + 1] : -3, d2 = (j + 2 < n) ? cases[indice + 2] : -4;
+            int h1 = (i >= 1) ? cases[indice - n] : -5, h2 = (i >= 2) ? cases[indice - 2 * n] : -6;
+            int b1 = (i + 1 < n) ? cases[indice + n] : -7, b2 = (i + 2 < n) ? cases[indice + 2 * n] : -8;
+
+            int interdits = 0;
+            if (g1 == g2) interdits |= bitCode(g1);
+            if (d1 == d2) interdits |= bitCode(d1);
+            if (g1 == d1) interdits |= bitCode(g1);
+            if (h1 == h2) interdits |= bitCode(h1);
+            if (b1 == b2) interdits |= bitCode(b1);
+            if (h1 == b1) interdits |= bitCode(h1);
+            return interdits;
+        }
+
+        /** Bit d'un code de bonbon (0..4), 0 pour tout autre code. Complexité : O(1). */
+        private static int bitCode(int code) {
+            return (code >= 0 && code < PlateauBits.BONBONS.length) ? 1 << code : 0;
+        }
+
+        /** Ajoute la case (l, c) à la zone sale. Complexité temporelle : O(1). */
+        private void salir(int l, int c) {
+            debut[c] = Math.min(debut[c], l);
+            fin[c] = Math.max(fin[c], l);
+        }
+
+        /**
+         * Supprime (code VIDE) les séries d'au moins 3 codes identiques passant par
+         * la zone sale, puis remplace la zone par [0, plus basse case supprimée].
+         *
+         * @return le nombre de bonbons supprimés.
+         *
+         * Complexité temporelle : O(taille de la zone + longueur des séries).
+         */
+        private int supprimer() {
+            byte[] cases = temp.cases;
+            nbMarquees = 0;
+
+            for (int c = 0; c < n; c++) {
+                for (int l = debut[c]; l <= fin[c]; l++) {
+                    byte bonbon = cases[l * n + c];
+                    if (bonbon == PlateauPlat.VIDE) {
+                        continue;
+                    }
+
+                    // Série horizontale passant par (l, c)
+                    int base = l * n;
+                    int gauche = c, droite = c;
+                    while (gauche > 0 && cases[base + gauche - 1] == bonbon) gauche--;
+                    while (droite < n - 1 && cases[base + droite + 1] == bonbon) droite++;
+                    if (droite - gauche >= 2) {
+                        for (int j = gauche; j <= droite; j++) marquer(base + j);
+                    }
+
+                    // Série verticale passant par (l, c)
+                    int haut = l, bas = l;
+                    while (haut > 0 && cases[(haut - 1) * n + c] == bonbon) haut--;
+                    while (bas < n - 1 && cases[(bas + 1) * n + c] == bonbon) bas++;
+                    if (bas - haut >= 2) {
+                        for (int i = haut; i <= bas; i++) marquer(i * n + c);
+                    }
+                }
+            }
+
+            Arrays.fill(debut, 0);
+            Arrays.fill(fin, -1);
+            for (int k = 0; k < nbMarquees; k++) {
+                int indice = marquees[k];
+                cases[indice] = PlateauPlat.VIDE;
+                marque[indice] = false;
+                fin[indice % n] = Math.max(fin[indice % n], indice / n);
+            }
+            return nbMarquees;
+        }
+
+        /** Marque une case si elle ne l'est pas déjà. Complexité : O(1). */
+        private void marquer(int indice) {
+            if (!marque[indice]) {
+                marque[indice] = true;
+                marquees[nbMarquees++] = indice;
+            }
+        }
+
+        /**
+         * Zone sale = [0, plus basse case vide] de chaque colonne, en tenant compte
+         * des cases vides déjà présentes avant le coup.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        private void zoneDesVides() {
+            for (int c = 0; c < n; c++) {
+                for (int l = n - 1; l > fin[c]; l--) {
+                    if (temp.cases[l * n + c] == PlateauPlat.VIDE) {
+                        fin[c] = l;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Même règle que chute, limitée aux colonnes de la zone sale et aux lignes
+         * au-dessus de leur plus basse case vide (les cases en dessous ne bougent pas).
+         *
+         * Complexité temporelle : O(taille de la zone).
+         */
+        private void chute() {
+            byte[] cases = temp.cases;
+            nbColonnes = 0;
+            for (int c = 0; c < n; c++) {
+                if (fin[c] < 0) {
+                    continue;
+                }
+                colonnes[nbColonnes++] = c;
+
+                int position = fin[c];
+                for (int l = fin[c]; l >= 0; l--) {
+                    byte bonbon = cases[l * n + c];
+                    if (bonbon != PlateauPlat.VIDE) {
+                        cases[position * n + c] = bonbon;
+                        position--;
+                    }
+                }
+                for (int l = position; l >= 0; l--) {
+                    cases[l * n + c] = PlateauPlat.VIDE;
+                }
+            }
+        }
+
+        /**
+         * Même règle et même ordre de tirage que remplissage (cases vides parcourues
+         * ligne par ligne, de gauche à droite, bonbon tiré parmi ceux autorisés par
+         * bonbonAutorise), limités à la zone sale : les cases vides ne peuvent se
+         * trouver qu'en haut des colonnes touchées.
+         *
+         * Complexité temporelle : O(taille de la zone).
+         */
+        private void remplissage() {
+            byte[] cases = temp.cases;
+            int bas = -1;
+            for (int k = 0; k < nbColonnes; k++) {
+                bas = Math.max(bas, fin[colonnes[k]]);
+            }
+
+            for (int i = 0; i <= bas; i++) {
+                for (int k = 0; k < nbColonnes; k++) {
+                    int j = colonnes[k];
+                    int indice = i * n + j;
+                    if (i > fin[j] || cases[indice] != PlateauPlat.VIDE) {
+                        continue;
+                    }
+
+                    cases[indice] = (byte) tirerDansEnsemble(TOUS_BONBONS & ~interdits(cases, i, j), alea);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cherche le meilleur coup possible sur le plateau, c'est-à-dire la permutation
+     * de deux cases adjacentes qui maximise le score obtenu (d'après simulerCoup).
+     *
+     * Pour chaque case (i, j) :
+     * - On simule la permutation avec son voisin de droite (i, j+1), si la case existe.
+     * - On simule la permutation avec son voisin du bas (i+1, j), si la case existe.
+     * - Pour chaque coup simulé, on calcule le score et on conserve les coordonnées
+     *   de celui qui donne le score maximal.
+     * - Les simulations se font sur un plateau à plat (PlateauPlat, un seul byte[])
+     *   réutilisé par thread (SimulationPlate) : après la première utilisation, un
+     *   appel n'alloue plus que le tableau résultat.
+     * - Si le plateau est stable (cas normal après la cascade de jeux), seules les
+     *   cases touchées par le coup sont rescannées (comme simulerCoupLocal),
+     *   et seulement s'ils passent le filtre exact coupPossible : un coup qui ne
+     *   forme aucune série de 3 a forcément un score nul et n'est pas simulé.
+     *
+     * @param plateau le plateau de jeu (char[n][n]).
+     *
+     * @return un tableau d'entiers {x1, y1, x2, y2} représentant le meilleur coup,
+     *         ou {-1, -1, -1, -1} s'il n'existe aucun coup améliorant la situation
+     *         (par exemple si aucun motif ne peut être créé).
+     *
+     * Complexité temporelle (pire cas théorique) :
+     * - On parcourt chaque case du plateau : O(n²).
+     * - Pour chaque case, on peut simuler jusqu'à 2 coups (droite et bas).
+     * - Chaque simulation de coup (simulerCoup) coûte O(n³) en pire cas théorique.
+     * ⇒ Complexité globale : O(n² * n³) = O(n⁵).
+     */
+    public static int[] meilleurCoup(char[][] plateau) {
+        return meilleurCoup(plateau, null);
+    }
+
+    /**
+     * Identique à meilleurCoup(plateau), en rapportant l'effet du filtre coupPossible.
+     *
+     * @param plateau      le plateau de jeu (char[n][n]).
+     * @param statistiques tableau de taille ≥ 2 (ou null) qui reçoit :
+     *                     [0] le nombre de coups candidats (paires adjacentes),
+     *                     [1] le nombre de coups éliminés sans simulation.
+     *
+     * @return le meilleur coup, comme meilleurCoup(plateau).
+     *
+     * Complexité temporelle : voir meilleurCoup(plateau).
+     */
+    public static int[] meilleurCoup(char[][] plateau, int[] statistiques) {
+        return meilleurCoup(plateau, statistiques, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à meilleurCoup(plateau, statistiques), avec un générateur explicite.
+     *
+     * Une seule graine est tirée de 'alea' ; la simulation du coup numéro k (voir
+     * meilleurCoupParallele) utilise son propre générateur, dérivé de cette graine
+     * et de k (generateurCoup). Le résultat ne dépend donc ni de l'ordre des
+     * simulations ni du thread qui les exécute : à générateur identique,
+     * meilleurCoup et meilleurCoupParallele retournent le même coup.
+     *
+     * @param alea générateur de la partie (une valeur consommée par appel).
+     *
+     * Complexité temporelle : voir meilleurCoup(plateau).
+     */
+    public static int[] meilleurCoup(char[][] plateau, int[] statistiques, RandomGenerator alea) {
+        return meilleurCoup(plateau, statistiques, alea, null);
+    }
+
+    /**
+     * Identique à meilleurCoup(plateau, statistiques, alea), en consultant un
+     * cache de scores (CacheCoups) indexé par l'empreinte de Zobrist du plateau
+     * mêlée à la graine des remplissages : un coup déjà simulé sur ce plateau avec
+     * les mêmes tirages (générateur dans le même état) n'est pas resimulé.
+     *
+     * @param cache cache partagé entre les appels, ou null pour tout simuler.
+     *
+     * Complexité temporelle : voir meilleurCoup(plateau) ; O(n²) pour l'empreinte,
+     * plus O(1) par coup trouvé dans le cache au lieu d'une simulation.
+     */
+    public static int[] meilleurCoup(char[][] plateau, int[] statistiques, RandomGenerator alea,
+                                     CacheCoups cache) {
+
+        long debutNs = Metriques.debut();
+        int n = plateau.length;
+        long graine = alea.nextLong();
+        int elagues = 0;
+        int simulations = 0;
+
+        int meilleurScore = 0;
+        int meilleurNumero = -1; // numéro k du meilleur coup (voir coupDepuisNumero)
+
+        // Sur un plateau stable, la détection locale donne le même score à moindre coût
+        boolean stable = estStable(plateau);
+
+        // Simulations sur plateaux à plat réutilisés : aucune allocation par coup
+        SimulationPlate simulation = SimulationPlate.pour(n);
+        simulation.source.charger(plateau);
+        long empreinte = (cache == null) ? 0 : EmpreinteZobrist.calculer(plateau) ^ graine;
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+
+                // Coup avec le voisin de droite
+                if (j + 1 < n && stable && !coupPossible(i, j, i, j + 1, plateau)) {
+                    elagues++;
+                } else if (j + 1 < n) {
+                    int k = (i * n + j) << 1;
+                    int score = (cache == null) ? -1 : cache.chercher(empreinte, k);
+                    if (score < 0) {
+                        score = simulation.simuler(simulation.source, i * n + j, i * n + j + 1,
+                                                   stable, graineCoup(graine, k));
+                        simulations++;
+                        if (cache != null) cache.ranger(empreinte, k, score);
+                    }
+                    if (score > meilleurScore) {
+                        meilleurScore = score;
+                        meilleurNumero = k;
+                    }
+                }
+
+                // Coup avec le voisin du bas
+                if (i + 1 < n && stable && !coupPossible(i, j, i + 1, j, plateau)) {
+                    elagues++;
+                } else if (i + 1 < n) {
+                    int k = ((i * n + j) << 1) | 1;
+                    int score = (cache == null) ? -1 : cache.chercher(empreinte, k);
+                    if (score < 0) {
+                        score = simulation.simuler(simulation.source, i * n + j, (i + 1) * n + j,
+                                                   stable, graineCoup(graine, k));
+                        simulations++;
+                        if (cache != null) cache.ranger(empreinte, k, score);
+                    }
+                    if (score > meilleurScore) {
+                        meilleurScore = score;
+                        meilleurNumero = k;
+                    }
+                }
+            }
+        }
+
+        noterStatistiques(statistiques, n, elagues);
+        if (debutNs != 0) {
+            Metriques.MEILLEUR_COUP.depuis(debutNs);
+            Metriques.SIMULATIONS_PAR_COUP.enregistrer(simulations);
+        }
+        return coupDepuisNumero(meilleurNumero, n);
+    }
+
+    /**
+     * Coordonnées du coup numéro k du parcours de meilleurCoup : case (k/2 / n,
+     * k/2 % n), avec son voisin de droite si k est pair, du bas sinon.
+     *
+     * @param k numéro du coup, ou -1 pour "aucun coup".
+     * @param n taille du plateau.
+     *
+     * @return {x1, y1, x2, y2}, ou {-1, -1, -1, -1} si k vaut -1.
+     *
+     * Complexité temporelle : O(1).
+     */
+    public static int[] coupDepuisNumero(int k, int n) {
+        if (k < 0) {
+            return new int[]{ -1, -1, -1, -1 };
+        }
+        int i = (k >> 1) / n, j = (k >> 1) % n;
+        return ((k & 1) == 0) ? new int[]{ i, j, i, j + 1 } : new int[]{ i, j, i + 1, j };
+    }
+
+    /**
+     * Générateur propre à la simulation du coup numéro k, dérivé d'une graine.
+     *
+     * La graine est mélangée avec k (fonction de finalisation de SplitMix64) pour
+     * que deux coups voisins n'obtiennent pas des suites décalées l'une de l'autre.
+     *
+     * @param graine graine tirée une fois par appel de meilleurCoup.
+     * @param k      numéro du coup (ordre du parcours de meilleurCoup).
+     *
+     * @return un générateur indépendant, réservé à cette simulation.
+     *
+     * Complexité temporelle : O(1).
+     */
+    public static RandomGenerator generateurCoup(long graine, int k) {
+        return new GenerateurSplitMix(graineCoup(graine, k));
+    }
+
+    /**
+     * Graine du générateur de la simulation du coup numéro k (voir generateurCoup),
+     * pour réinitialiser un générateur existant sans en allouer un nouveau.
+     *
+     * Complexité temporelle : O(1).
+     */
+    public static long graineCoup(long graine, int k) {
+        return melanger(graine + k * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Fonction de mélange 64 bits de SplitMix64 (bijective, bien répartie).
+     *
+     * Complexité temporelle : O(1).
+     */
+    public static long melanger(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Remplit le tableau de statistiques de meilleurCoup, s'il est fourni.
+     *
+     * Complexité temporelle : O(1).
+     */
+    private static void noterStatistiques(int[] statistiques, int n, long elagues) {
+        if (statistiques != null) {
+            statistiques[0] = 2 * n * (n - 1); // paires de cases adjacentes
+            statistiques[1] = (int) elagues;
+        }
+    }
+
+    /**
+     * Filtre exact et local des coups : indique si permuter (x1, y1) et (x2, y2)
+     * forme au moins une série de 3 bonbons identiques.
+     *
+     * Sur un plateau stable, tout motif créé par le coup passe par l'une des deux
+     * cases permutées ; il suffit donc de regarder, autour de chacune, les deux
+     * cases de part et d'autre sur sa ligne et sur sa colonne (voisinage 5 x 5),
+     * sans copier le plateau ni simuler de cascade. Le plateau n'est pas modifié
+     * (la permutation est "virtuelle"), la fonction peut donc être appelée par
+     * plusieurs threads sur le même plateau.
+     *
+     * @param x1      ligne de la première case (0..n-1)
+     * @param y1      colonne de la première case (0..n-1)
+     * @param x2      ligne de la deuxième case, adjacente à la première
+     * @param y2      colonne de la deuxième case, adjacente à la première
+     * @param plateau le plateau de jeu (char[n][n]).
+     *
+     * @return true si le coup supprime au moins un bonbon à la première étape
+     *         (sur un plateau stable : si et seulement si simulerCoup > 0).
+     *
+     * Complexité temporelle :
+     * - Au plus 4 séries de longueur bornée examinées : O(1).
+     */
+    public static boolean coupPossible(int x1, int y1, int x2, int y2, char[][] plateau) {
+        char a = plateau[x1][y1];
+        char b = plateau[x2][y2];
+        if (a == b) {
+            return false; // permuter deux bonbons identiques ne change rien
+        }
+        return formeSerie(plateau, x1, y1, b, x2, y2) || formeSerie(plateau, x2, y2, a, x1, y1);
+    }
+
+    /**
+     * Indique si le bonbon 'bonbon', placé en (l, c), forme une série d'au moins 3
+     * sur sa ligne ou sa colonne. La case (lo, co), d'où vient le bonbon, contient
+     * après permutation un bonbon différent : elle arrête la série.
+     *
+     * Complexité temporelle : O(1) (au plus 2 cases lues dans chaque direction).
+     */
+    private static boolean formeSerie(char[][] plateau, int l, int c, char bonbon, int lo, int co) {
+        if (bonbon == '-') {
+            return false;
+        }
+        int n = plateau.length;
+
+        int horizontal = 1;
+        for (int j = c - 1; j >= 0 && j >= c - 2 && !(l == lo && j == co) && plateau[l][j] == bonbon; j--) horizontal++;
+        for (int j = c + 1; j < n && j <= c + 2 && !(l == lo && j == co) && plateau[l][j] == bonbon; j++) horizontal++;
+        if (horizontal >= 3) {
+            return true;
+        }
+
+        int vertical = 1;
+        for (int i = l - 1; i >= 0 && i >= l - 2 && !(i == lo && c == co) && plateau[i][c] == bonbon; i--) vertical++;
+        for (int i = l + 1; i < n && i <= l + 2 && !(i == lo && c == co) && plateau[i][c] == bonbon; i++) vertical++;
+        return vertical >= 3;
+    }
+
+    /**
+     * Indique si le plateau a au moins un coup jouable (un coup qui forme une série
+     * de 3), par motifs locaux et sans simuler de cascade.
+     *
+     * Voir trouverCoup. Sur un plateau stable, existeCoup(plateau) est vrai si et
+     * seulement si meilleurCoup ne retourne pas {-1, -1, -1, -1}.
+     *
+     * @param jeux le plateau de jeu (char[n][n]), supposé stable (voir estStable).
+     *
+     * @return true s'il existe au moins un coup jouable.
+     *
+     * Complexité temporelle : O(n²), O(1) par case, sans copie du plateau.
+     */
+    public static boolean existeCoup(char[][] jeux){
+        return trouverCoup(jeux) >= 0;
+    }
+
+    /**
+     * Cherche un coup jouable par les motifs locaux d'un plateau stable : une
+     * série ne peut naître que d'une paire de bonbons identiques (a a) ou d'une
+     * paire à trou (a _ a) sur une ligne ou une colonne, complétée par un 'a'
+     * voisin de la case qui prolonge la paire ou bouche le trou :
+     *
+     *   paire (i, j) (i, j+1) : case cible (i, j-1), 'a' en (i, j-2), (i-1, j-1)
+     *                           ou (i+1, j-1) ; case cible (i, j+2), 'a' en
+     *                           (i, j+3), (i-1, j+2) ou (i+1, j+2) ;
+     *   trou  (i, j) (i, j+2) : case cible (i, j+1), 'a' en (i-1, j+1) ou (i+1, j+1) ;
+     *   et de même sur les colonnes.
+     *
+     * Le coup trouvé permute le 'a' voisin et la case cible ; il passe donc le
+     * filtre coupPossible.
+     *
+     * @param jeux le plateau de jeu (char[n][n]), supposé stable.
+     *
+     * @return le numéro k du premier coup trouvé (même numérotation que
+     *         meilleurCoup : k = 2 * (i * n + j) + 0 pour (i, j) <-> (i, j+1),
+     *         + 1 pour (i, j) <-> (i+1, j)), ou -1 s'il n'y en a aucun.
+     *
+     * Complexité temporelle : O(n²), au plus 16 cases lues autour de chaque paire.
+     */
+    static int trouverCoup(char[][] jeux){
+        return parcourirMotifs(jeux, null);
+    }
+
+    /**
+     * Parcours des motifs de trouverCoup : s'arrête au premier coup trouvé si
+     * 'trouves' est null, sinon met trouves[k] à 1 pour chaque coup jouable k et
+     * parcourt tout le plateau (un même coup peut être trouvé par plusieurs motifs).
+     *
+     * @return le premier coup trouvé (trouves == null), -1 sinon ou s'il n'y en a aucun.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    static int parcourirMotifs(char[][] jeux, int[] trouves){
+        int n = jeux.length;
+        int k;
+        for (int i = 0; i < n; i++) {
+            char[] ligne = jeux[i];
+            for (int j = 0; j < n; j++) {
+                char a = ligne[j];
+                if (a == '-') {
+                    continue;
+                }
+                if (j + 1 < n && ligne[j + 1] == a) { // paire horizontale
+                    if (j >= 1) {
+                        if (j >= 2 && ligne[j - 2] == a && (k = coupTrouve(trouves, n, i, j - 2, 0)) >= 0) return k;
+                        if (i >= 1 && jeux[i - 1][j - 1] == a && (k = coupTrouve(trouves, n, i - 1, j - 1, 1)) >= 0) return k;
+                        if (i + 1 < n && jeux[i + 1][j - 1] == a && (k = coupTrouve(trouves, n, i, j - 1, 1)) >= 0) return k;
+                    }
+                    if (j + 2 < n) {
+                        if (j + 3 < n && ligne[j + 3] == a && (k = coupTrouve(trouves, n, i, j + 2, 0)) >= 0) return k;
+                        if (i >= 1 && jeux[i - 1][j + 2] == a && (k = coupTrouve(trouves, n, i - 1, j + 2, 1)) >= 0) return k;
+                        if (i + 1 < n && jeux[i + 1][j + 2] == a && (k = coupTrouve(trouves, n, i, j + 2, 1)) >= 0) return k;
+                    }
+                }
+                if (j + 2 < n && ligne[j + 2] == a) { // trou horizontal
+                    if (i >= 1 && jeux[i - 1][j + 1] == a && (k = coupTrouve(trouves, n, i - 1, j + 1, 1)) >= 0) return k;
+                    if (i + 1 < n && jeux[i + 1][j + 1] == a && (k = coupTrouve(trouves, n, i, j + 1, 1)) >= 0) return k;
+                }
+                if (i + 1 < n && jeux[i + 1][j] == a) { // paire verticale
+                    if (i >= 1) {
+                        if (i >= 2 && jeux[i - 2][j] == a && (k = coupTrouve(trouves, n, i - 2, j, 1)) >= 0) return k;
+                        if (j >= 1 && jeux[i - 1][j - 1] == a && (k = coupTrouve(trouves, n, i - 1, j - 1, 0)) >= 0) return k;
+                        if (j + 1 < n && jeux[i - 1][j + 1] == a && (k = coupTrouve(trouves, n, i - 1, j, 0)) >= 0) return k;
+                    }
+                    if (i + 2 < n) {
+                        if (i + 3 < n && jeux[i + 3][j] == a && (k = coupTrouve(trouves, n, i + 2, j, 1)) >= 0) return k;
+                        if (j >= 1 && jeux[i + 2][j - 1] == a && (k = coupTrouve(trouves, n, i + 2, j - 1, 0)) >= 0) return k;
+                        if (j + 1 < n && jeux[i + 2][j + 1] == a && (k = coupTrouve(trouves, n, i + 2, j, 0)) >= 0) return k;
+                    }
+                }
+                if (i + 2 < n && jeux[i + 2][j] == a) { // trou vertical
+                    if (j >= 1 && jeux[i + 1][j - 1] == a && (k = coupTrouve(trouves, n, i + 1, j - 1, 0)) >= 0) return k;
+                    if (j + 1 < n && jeux[i + 1][j + 1] == a && (k = coupTrouve(trouves, n, i + 1, j, 0)) >= 0) return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Numéro k du coup (i, j) <-> voisin de droite (d = 0) ou du bas (d = 1) si
+     * 'trouves' est null ; sinon le note dans trouves et retourne -1 (parcours
+     * complet, voir parcourirMotifs). Complexité temporelle : O(1).
+     */
+    private static int coupTrouve(int[] trouves, int n, int i, int j, int d) {
+        int k = ((i * n + j) << 1) | d;
+        if (trouves == null) {
+            return k;
+        }
+        trouves[k] = 1;
+        return -1;
+    }
+
+    /**
+     * Version parallèle de meilleurCoup : les 2n² coups candidats (voisin de
+     * droite et voisin du bas de chaque case) sont répartis sur tous les cœurs
+     * via un flux parallèle (ForkJoinPool commun).
+     *
+     * - Le plateau est converti une fois au format à plat (PlateauPlat), partagé en
+     *   lecture seule ; chaque thread de travail simule dans sa propre
+     *   SimulationPlate (plateau de travail, zone sale, générateur).
+     * - Le coup numéro k correspond à la case (k/2 / n, k/2 % n), voisin de droite
+     *   si k est pair, du bas sinon : c'est l'ordre du parcours de meilleurCoup.
+     * - La réduction garde le score maximal et, à score égal, le plus petit k :
+     *   on obtient le même départage que le parcours séquentiel, quel que soit
+     *   l'ordre d'exécution des threads.
+     *
+     * @param plateau le plateau de jeu (char[n][n]), non modifié.
+     *
+     * @return un tableau d'entiers {x1, y1, x2, y2} représentant le meilleur coup,
+     *         ou {-1, -1, -1, -1} si aucun coup ne supprime de bonbon.
+     *
+     * Complexité temporelle :
+     * - Même travail total que meilleurCoup (filtre coupPossible compris),
+     *   divisé par le nombre de cœurs.
+     */
+    public static int[] meilleurCoupParallele(char[][] plateau) {
+        return meilleurCoupParallele(plateau, null);
+    }
+
+    /**
+     * Identique à meilleurCoupParallele(plateau), en rapportant l'effet du filtre
+     * coupPossible dans 'statistiques' (même format que meilleurCoup).
+     *
+     * Complexité temporelle : voir meilleurCoupParallele(plateau).
+     */
+    public static int[] meilleurCoupParallele(char[][] plateau, int[] statistiques) {
+        return meilleurCoupParallele(plateau, statistiques, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Identique à meilleurCoupParallele(plateau, statistiques), avec un générateur
+     * explicite. Chaque simulation reçoit son propre générateur (generateurCoup) :
+     * les threads ne partagent aucun état aléatoire, et le coup retourné est le
+     * même que celui de meilleurCoup(plateau, statistiques, alea).
+     *
+     * Complexité temporelle : voir meilleurCoupParallele(plateau).
+     */
+    public static int[] meilleurCoupParallele(char[][] plateau, int[] statistiques, RandomGenerator alea) {
+        return meilleurCoupParallele(plateau, statistiques, alea, null);
+    }
+
+    /**
+     * Identique à meilleurCoupParallele(plateau, statistiques, alea), avec un cache
+     * de scores (voir meilleurCoup(plateau, statistiques, alea, cache)). Le cache
+     * est lu et écrit sans verrou par tous les threads de travail.
+     *
+     * Complexité temporelle : voir meilleurCoupParallele(plateau).
+     */
+    public static int[] meilleurCoupParallele(char[][] plateau, int[] statistiques, RandomGenerator alea,
+                                              CacheCoups cache) {
+        long debutNs = Metriques.debut();
+        int n = plateau.length;
+        long graine = alea.nextLong();
+        boolean stable = estStable(plateau);
+        LongAdder elagues = new LongAdder();
+        LongAdder simulations = new LongAdder();
+        PlateauPlat source = PlateauPlat.depuis(plateau); // partagé en lecture seule
+        long empreinte = (cache == null) ? 0 : EmpreinteZobrist.calculer(plateau) ^ graine;
+
+        long meilleureCle = IntStream.range(0, 2 * n * n).parallel().mapToLong(k -> {
+            int i = (k >> 1) / n, j = (k >> 1) % n;
+            int i2 = ((k & 1) == 0) ? i : i + 1;
+            int j2 = ((k & 1) == 0) ? j + 1 : j;
+            if (i2 >= n || j2 >= n) {
+                return -1; // pas de voisin dans cette direction
+            }
+            if (stable && !coupPossible(i, j, i2, j2, plateau)) {
+                elagues.increment();
+                return -1; // score nul garanti, pas de simulation
+            }
+            int score = (cache == null) ? -1 : cache.chercher(empreinte, k);
+            if (score < 0) {
+                score = SimulationPlate.pour(n).simuler(source, i * n + j, i2 * n + j2,
+                                                        stable, graineCoup(graine, k));
+                simulations.increment();
+                if (cache != null) cache.ranger(empreinte, k, score);
+            }
+            // score dans les bits de poids fort, puis k inversé : le maximum
+            // donne le meilleur score et, à égalité, le premier coup du parcours
+            return ((long) score << 32) | (0xFFFFFFFFL - k);
+        }).max().orElse(-1);
+
+        noterStatistiques(statistiques, n, elagues.sum());
+        if (debutNs != 0) {
+            Metriques.MEILLEUR_COUP.depuis(debutNs);
+            Metriques.SIMULATIONS_PAR_COUP.enregistrer(simulations.sum());
+        }
+        if (meilleureCle < 0 || (meilleureCle >>> 32) == 0) {
+            return coupDepuisNumero(-1, n);
+        }
+        return coupDepuisNumero((int) (0xFFFFFFFFL - (meilleureCle & 0xFFFFFFFFL)), n);
+    }
+
+    /**
+     * Empreinte de Zobrist d'un plateau char[n][n] : OU exclusif, sur toutes les
+     * cases, d'une clé aléatoire 64 bits propre au couple (case, caractère).
+     *
+     * Les clés sont calculées à la demande (melanger de l'indice et du caractère)
+     * plutôt que lues dans une table : elles valent pour toutes les tailles de
+     * plateau et tous les caractères, sans mémoire supplémentaire.
+     *
+     * Comme le OU exclusif est son propre inverse, changer une case ou permuter
+     * deux cases met l'empreinte à jour en O(1) (apresChangement, apresPermutation),
+     * sans reparcourir le plateau : RechercheProfondeur ne calcule l'empreinte
+     * complète qu'à la racine, et obtient celle de chaque position suivante à
+     * partir de celle de sa position parente (apresCoup).
+     */
+    static final class EmpreinteZobrist {
+
+        private static final long SEL = 0x5DEECE66DL;
+
+        private EmpreinteZobrist() {
+        }
+
+        /**
+         * Clé de la case d'indice 'indice' (l * n + c) contenant 'bonbon'.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static long cle(int indice, char bonbon) {
+            return melanger((((long) indice << 16) | bonbon) + SEL);
+        }
+
+        /**
+         * Empreinte complète d'un plateau.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        static long calculer(char[][] plateau) {
+            int n = plateau.length;
+            long empreinte = 0;
+            for (int l = 0; l < n; l++) {
+                for (int c = 0; c < n; c++) {
+                    empreinte ^= cle(l * n + c, plateau[l][c]);
+                }
+            }
+            return empreinte;
+        }
+
+        /**
+         * Empreinte après que la case 'indice' est passée de 'ancien' à 'nouveau'.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static long apresChangement(long empreinte, int indice, char ancien, char nouveau) {
+            return empreinte ^ cle(indice, ancien) ^ cle(indice, nouveau);
+        }
+
+        /**
+         * Empreinte après la permutation des cases a (contenant ca) et b (contenant cb).
+         *
+         * Complexité temporelle : O(1).
+         */
+        static long apresPermutation(long empreinte, int a, char ca, int b, char cb) {
+            return apresChangement(apresChangement(empreinte, a, ca, cb), b, cb, ca);
+        }
+
+        /**
+         * Empreinte du plateau 'apres' laissé par le coup (x1, y1) <-> (x2, y2) sur
+         * 'avant', connaissant l'empreinte de 'avant' et la zone modifiée par la
+         * cascade (voir simulerCoupLocal(x1, y1, x2, y2, plateau, temp, alea, modifiee)).
+         *
+         * Complexité temporelle : O(n + taille de la zone), au lieu de O(n²).
+         */
+        static long apresCoup(long empreinte, char[][] avant, int x1, int y1, int x2, int y2,
+                              char[][] apres, int[] zone) {
+            int n = avant.length;
+            char c1 = avant[x1][y1], c2 = avant[x2][y2];
+            empreinte = apresPermutation(empreinte, x1 * n + y1, c1, x2 * n + y2, c2);
+            for (int c = 0; c < n; c++) {
+                for (int l = 0; l <= zone[c]; l++) {
+                    // case après la permutation, avant la cascade
+                    char ancien = (l == x1 && c == y1) ? c2 : (l == x2 && c == y2) ? c1 : avant[l][c];
+                    empreinte = apresChangement(empreinte, l * n + c, ancien, apres[l][c]);
+                }
+            }
+            return empreinte;
+        }
+    }
+
+    /**
+     * Cache borné des scores de simulation, indexé par (empreinte du plateau, coup),
+     * pour ne pas resimuler un coup déjà évalué sur le même plateau avec les mêmes
+     * tirages (recherche en profondeur, partie rejouée, suggestions répétées).
+     *
+     * - Table à accès direct de 'capacite' entrées (arrondie à une puissance de 2) :
+     *   une entrée occupée par une autre clé est remplacée (éviction).
+     * - Chaque entrée tient dans deux long : (clé ^ donnée) et donnée. Une lecture
+     *   n'est acceptée que si les deux concordent, ce qui rend la table utilisable
+     *   sans verrou par plusieurs threads (meilleurCoupParallele) : une entrée
+     *   écrite à moitié par un autre thread est vue comme absente.
+     * - La clé est un mélange 64 bits de l'empreinte et du numéro de coup ; deux
+     *   positions différentes n'ont la même clé qu'avec une probabilité de l'ordre
+     *   de 2^-64 par comparaison.
+     * - Les compteurs de succès, d'échecs et d'évictions (LongAdder) servent à
+     *   dimensionner le cache.
+     *
+     * Les remplissages étant aléatoires, l'appelant mêle la graine de ses tirages
+     * à l'empreinte (empreinte ^ graine) : un score n'est réutilisé que pour la
+     * même position et les mêmes tirages, et vaut donc exactement celui d'une
+     * nouvelle simulation.
+     */
+    static final class CacheCoups {
+
+        private final long[] table; // [2e] = clé ^ donnée, [2e + 1] = donnée
+        private final int masque;
+        private final LongAdder succes = new LongAdder();
+        private final LongAdder echecs = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        /**
+         * @param capacite nombre maximal d'entrées (≥ 1), arrondi à la puissance
+         *                 de 2 supérieure.
+         *
+         * Complexité temporelle : O(capacite).
+         */
+        CacheCoups(int capacite) {
+            if (capacite < 1 || capacite > (1 << 29)) {
+                throw new IllegalArgumentException("Capacité de cache invalide : " + capacite);
+            }
+            int taille = Integer.highestOneBit(capacite);
+            if (taille < capacite) {
+                taille <<= 1;
+            }
+            this.table = new long[2 * taille];
+            this.masque = taille - 1;
+        }
+
+        /**
+         * Score rangé pour le coup numéro k sur le plateau d'empreinte 'empreinte',
+         * ou -1 s'il est absent.
+         *
+         * Complexité temporelle : O(1).
+         */
+        int chercher(long empreinte, int k) {
+            long cle = cle(empreinte, k);
+            int e = (int) cle & masque;
+            long donnee = table[2 * e + 1];
+            if (donnee != 0 && (table[2 * e] ^ donnee) == cle) {
+                succes.increment();
+                return (int) (donnee - 1);
+            }
+            echecs.increment();
+            return -1;
+        }
+
+        /**
+         * Range le score du coup numéro k sur le plateau d'empreinte 'empreinte',
+         * en évinçant l'entrée précédente de la même case de la table.
+         *
+         * Complexité temporelle : O(1).
+         */
+        void ranger(long empreinte, int k, int score) {
+            long cle = cle(empreinte, k);
+            int e = (int) cle & masque;
+            long ancienne = table[2 * e + 1];
+            if (ancienne != 0 && (table[2 * e] ^ ancienne) != cle) {
+                evictions.increment();
+            }
+            long donnee = (long) score + 1; // 0 réservé aux entrées vides
+            table[2 * e] = cle ^ donnee;
+            table[2 * e + 1] = donnee;
+        }
+
+        /** Clé de l'entrée (empreinte, coup). Complexité temporelle : O(1). */
+        private static long cle(long empreinte, int k) {
+            return melanger(empreinte ^ (k * 0xC2B2AE3D27D4EB4FL));
+        }
+
+        /** Nombre d'entrées de la table. */
+        int capacite() {
+            return masque + 1;
+        }
+
+        long succes() {
+            return succes.sum();
+        }
+
+        long echecs() {
+            return echecs.sum();
+        }
+
+        long evictions() {
+            return evictions.sum();
+        }
+
+        /** Vide la table et remet les compteurs à zéro. Complexité : O(capacite). */
+        void vider() {
+            Arrays.fill(table, 0);
+            succes.reset();
+            echecs.reset();
+            evictions.reset();
+        }
+
+        @Override
+        public String toString() {
+            long s = succes(), e = echecs();
+            return "cache " + capacite() + " entrées : " + s + " succès, " + e + " échecs ("
+                + String.format(Locale.ROOT, "%.1f", 100.0 * s / Math.max(1, s + e))
+                + " %), " + evictions() + " évictions";
+        }
+    }
+
+    /**
+     * Recherche du meilleur coup sur plusieurs coups enchaînés : la valeur d'un
+     * coup est son score (simulerCoup) plus la meilleure valeur que l'on peut
+     * obtenir ensuite sur le plateau qu'il laisse, jusqu'à 'profondeurMax' coups.
+     *
+     * - Ordre des coups : à chaque position, tous les coups sont notés à un coup
+     *   (filtre coupPossible, puis SimulationPlate, sans allocation) et triés par
+     *   score décroissant puis par numéro ; seuls les 'largeur' premiers sont
+     *   explorés plus profondément (faisceau).
+     * - Élagage optimiste : un coup de score s à une position où le meilleur
+     *   score à un coup vaut m est estimé rapporter au plus s + 2 * (p - 1) * m
+     *   avec p coups restants (chaque coup suivant rapporterait au plus deux fois
+     *   le meilleur coup actuel). Dès que cette borne ne dépasse plus la
+     *   meilleure valeur trouvée, les coups suivants (moins bien notés) sont
+     *   abandonnés. Comme le faisceau, c'est une heuristique : la borne n'est pas
+     *   garantie (une grande cascade peut suivre).
+     * - Approfondissement itératif : profondeur 1, puis 2, ... jusqu'à
+     *   profondeurMax ; chaque itération explore d'abord le meilleur coup de la
+     *   précédente. Avec un budget de temps, la recherche s'arrête au budget et
+     *   retourne le coup de la dernière profondeur terminée (la profondeur 1 est
+     *   toujours terminée).
+     * - Les remplissages d'une position sont tirés avec une graine dérivée de la
+     *   graine de la position parente et du coup joué : une position est la même
+     *   d'une itération à l'autre, et les scores à un coup déjà calculés sont
+     *   retrouvés dans un CacheCoups (clé : empreinte de Zobrist et graine).
+     *   Chaque coup n'est simulé qu'avec un seul tirage des remplissages.
+     *
+     * À la profondeur 1, le coup retourné est celui de meilleurCoup avec le même
+     * générateur. Une instance garde ses tableaux de travail d'un appel à l'autre
+     * et n'est pas utilisable par plusieurs threads à la fois.
+     */
+    static final class RechercheProfondeur {
+
+        final int profondeurMax;
+        final int largeur;
+        private final long budgetNs;
+
+        // Statistiques de la dernière recherche
+        long noeuds;            // coups notés (simulés ou trouvés dans le cache)
+        long simulations;       // plateaux suivants calculés pour descendre d'un niveau
+        int profondeurAtteinte; // dernière profondeur terminée
+        long dureeNs;
+
+        private final CacheCoups cache = new CacheCoups(1 << 16);
+        private final GenerateurSplitMix generateur = new GenerateurSplitMix(0);
+        private int n = -1;
+        private PlateauPlat[] plats;  // position de chaque niveau, à plat
+        private char[][][] enfants;   // plateau suivant de chaque niveau
+        private long[][] cles;        // coups notés de chaque niveau : (score << 32) | ~numéro
+        private int[] zone;           // zone modifiée par la dernière descente (voir simulerCoupLocal)
+        private long echeance;
+        private boolean interrompue;
+        private int numeroRacine;
+
+        /**
+         * @param profondeurMax nombre maximal de coups enchaînés (≥ 1).
+         * @param largeur       coups explorés en profondeur par position (≥ 1).
+         * @param budgetMs      budget de temps par recherche en ms, 0 pour aucun.
+         */
+        RechercheProfondeur(int profondeurMax, int largeur, long budgetMs) {
+            if (profondeurMax < 1 || largeur < 1) {
+                throw new IllegalArgumentException("Profondeur et largeur doivent être ≥ 1");
+            }
+            this.profondeurMax = profondeurMax;
+            this.largeur = largeur;
+            this.budgetNs = budgetMs * 1_000_000L;
+        }
+
+        /**
+         * Retourne le meilleur coup {x1, y1, x2, y2} trouvé sur 'plateau', ou
+         * {-1, -1, -1, -1} si aucun coup ne supprime de bonbon.
+         *
+         * @param plateau plateau de jeu (char[n][n]), non modifié.
+         * @param alea    générateur de la partie (une valeur consommée par appel).
+         *
+         * Complexité temporelle :
+         * - O(n²) coups notés par position, et au plus largeur^(p-1) positions à la
+         *   profondeur p : O(largeur^(profondeurMax-1) * n² * coût d'une simulation)
+         *   dans le pire cas, beaucoup moins avec l'élagage.
+         */
+        int[] meilleurCoup(char[][] plateau, RandomGenerator alea) {
+            long debut = System.nanoTime();
+            echeance = (budgetNs > 0) ? debut + budgetNs : Long.MAX_VALUE;
+            preparer(plateau.length);
+            long graine = alea.nextLong();
+            long empreinte = EmpreinteZobrist.calculer(plateau);
+            noeuds = 0;
+            simulations = 0;
+            profondeurAtteinte = 0;
+
+            int meilleur = -1;
+            for (int profondeur = 1; profondeur <= profondeurMax; profondeur++) {
+                interrompue = false;
+                explorer(0, plateau, empreinte, profondeur, graine, meilleur, profondeur > 1);
+                if (interrompue) {
+                    break; // on garde le coup de la profondeur précédente
+                }
+                meilleur = numeroRacine;
+                profondeurAtteinte = profondeur;
+                if (meilleur < 0 || System.nanoTime() >= echeance) {
+                    break;
+                }
+            }
+
+            dureeNs = System.nanoTime() - debut;
+            return coupDepuisNumero(meilleur, n);
+        }
+
+        /** Coups notés par seconde pendant la dernière recherche. Complexité : O(1). */
+        double noeudsParSeconde() {
+            return noeuds * 1e9 / Math.max(1, dureeNs);
+        }
+
+        /**
+         * Valeur de la meilleure suite de 'profondeur' coups à partir de 'plateau'
+         * (0 s'il n'y a aucun coup). Au niveau 0, le numéro du meilleur coup est
+         * rangé dans numeroRacine.
+         *
+         * @param empreinte empreinte de Zobrist de 'plateau'.
+         * @param premier   numéro du coup à explorer en premier (niveau 0), ou -1.
+         * @param interruptible true si l'échéance peut interrompre la recherche.
+         *
+         * Complexité temporelle : voir meilleurCoup(plateau, alea).
+         */
+        private int explorer(int niveau, char[][] plateau, long empreinte, int profondeur, long graine,
+                             int premier, boolean interruptible) {
+            long[] notes = cles[niveau];
+            boolean stable = estStable(plateau);
+            int nb = noter(niveau, plateau, stable, empreinte, graine);
+            if (niveau == 0) {
+                numeroRacine = -1;
+            }
+            if (nb == 0) {
+                return 0;
+            }
+            int borne = (int) (notes[nb - 1] >>> 32); // meilleur score à un coup
+            if (profondeur == 1) {
+                if (niveau == 0) {
+                    numeroRacine = numero(notes[nb - 1]);
+                }
+                return borne;
+            }
+            if (premier >= 0) {
+                mettreEnTete(notes, nb, premier);
+            }
+
+            int meilleureValeur = -1;
+            int meilleurNumero = -1;
+            char[][] enfant = enfants[niveau];
+            for (int t = 0; t < Math.min(nb, largeur); t++) {
+                long note = notes[nb - 1 - t];
+                int score = (int) (note >>> 32);
+                int k = numero(note);
+                if (meilleureValeur >= 0 && score + 2 * (profondeur - 1) * borne <= meilleureValeur) {
+                    break; // les coups suivants sont moins bien notés
+                }
+                if (interruptible && System.nanoTime() >= echeance) {
+                    interrompue = true;
+                    return meilleureValeur;
+                }
+
+                // Plateau laissé par le coup k, avec les mêmes remplissages que sa note
+                int[] coup = coupDepuisNumero(k, n);
+                generateur.reinitialiser(graineCoup(graine, k));
+                long empreinteEnfant;
+                if (stable) {
+                    // détection locale ; la zone modifiée donne l'empreinte de l'enfant
+                    Arrays.fill(zone, -1);
+                    score = simulerCoupLocal(coup[0], coup[1], coup[2], coup[3], plateau, enfant, generateur, zone);
+                    empreinteEnfant = EmpreinteZobrist.apresCoup(empreinte, plateau,
+                                                                 coup[0], coup[1], coup[2], coup[3], enfant, zone);
+                } else {
+                    score = simulerCoup(coup[0], coup[1], coup[2], coup[3], plateau, enfant, generateur);
+                    empreinteEnfant = EmpreinteZobrist.calculer(enfant);
+                }
+                simulations++;
+
+                int valeur = score + explorer(niveau + 1, enfant, empreinteEnfant, profondeur - 1,
+                                              melanger(graine ^ (k + 1L)), -1, interruptible);
+                if (interrompue) {
+                    return meilleureValeur;
+                }
+                if (valeur > meilleureValeur) {
+                    meilleureValeur = valeur;
+                    meilleurNumero = k;
+                }
+            }
+
+            if (niveau == 0) {
+                numeroRacine = meilleurNumero;
+            }
+            return meilleureValeur;
+        }
+
+        /**
+         * Note tous les coups de 'plateau' qui suppriment au moins un bonbon et les
+         * range dans cles[niveau], triés par note croissante (le meilleur à la fin).
+         *
+         * @param stable    true si 'plateau' est stable (voir estStable).
+         * @param empreinte empreinte de Zobrist de 'plateau'.
+         *
+         * @return le nombre de coups notés.
+         *
+         * Complexité temporelle : O(n²) coups, plus une simulation par coup qui
+         * passe le filtre et n'est pas dans le cache, plus le tri.
+         */
+        private int noter(int niveau, char[][] plateau, boolean stable, long empreinte, long graine) {
+            long[] notes = cles[niveau];
+            PlateauPlat plat = plats[niveau];
+            plat.charger(plateau);
+            empreinte ^= graine;
+            SimulationPlate simulation = SimulationPlate.pour(n);
+
+            int nb = 0;
+            for (int k = 0; k < 2 * n * n; k++) {
+                int i = (k >> 1) / n, j = (k >> 1) % n;
+                int i2 = ((k & 1) == 0) ? i : i + 1;
+                int j2 = ((k & 1) == 0) ? j + 1 : j;
+                if (i2 >= n || j2 >= n || (stable && !coupPossible(i, j, i2, j2, plateau))) {
+                    continue;
+                }
+                int score = cache.chercher(empreinte, k);
+                if (score < 0) {
+                    score = simulation.simuler(plat, i * n + j, i2 * n + j2, stable, graineCoup(graine, k));
+                    cache.ranger(empreinte, k, score);
+                }
+                noeuds++;
+                if (score > 0) {
+                    notes[nb++] = ((long) score << 32) | (0xFFFFFFFFL - k);
+                }
+            }
+            Arrays.sort(notes, 0, nb);
+            return nb;
+        }
+
+        /** Numéro du coup d'une note. Complexité temporelle : O(1). */
+        private static int numero(long note) {
+            return (int) (0xFFFFFFFFL - (note & 0xFFFFFFFFL));
+        }
+
+        /**
+         * Place le coup numéro k en tête d'exploration (fin du tableau), s'il est noté.
+         *
+         * Complexité temporelle : O(nb).
+         */
+        private static void mettreEnTete(long[] notes, int nb, int k) {
+            for (int t = 0; t < nb; t++) {
+                if (numero(notes[t]) == k) {
+                    long note = notes[t];
+                    System.arraycopy(notes, t + 1, notes, t, nb - 1 - t);
+                    notes[nb - 1] = note;
+                    return;
+                }
+            }
+        }
+
+        /** (Re)crée les tableaux de travail pour des plateaux de taille n. Complexité : O(p * n²). */
+        private void preparer(int taille) {
+            if (taille == n) {
+                return;
+            }
+            n = taille;
+            plats = new PlateauPlat[profondeurMax];
+            enfants = new char[profondeurMax][n][n];
+            cles = new long[profondeurMax][2 * n * n];
+            zone = new int[n];
+            for (int p = 0; p < profondeurMax; p++) {
+                plats[p] = new PlateauPlat(n);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "profondeur " + profondeurAtteinte + "/" + profondeurMax + ", " + noeuds + " nœuds, "
+                + simulations + " descentes, "
+                + String.format(Locale.ROOT, "%.0f", noeudsParSeconde()) + " nœuds/s";
+        }
+    }
+
+    /**
+     * Évaluation de Monte-Carlo des coups : au lieu d'une seule simulation par
+     * coup (dont le score dépend des bonbons tirés par remplissage), chaque coup
+     * candidat est simulé jusqu'à K fois avec des remplissages tirés
+     * indépendamment, et l'on compare les moyennes.
+     *
+     * - Les simulations sont faites par lots (au plus LOT par coup et par tour),
+     *   réparties sur le ForkJoinPool commun (vol de tâches) via un flux parallèle ;
+     *   chaque simulation a sa propre graine (graineTirage), et les scores d'un
+     *   tour sont additionnés dans un ordre fixe : le résultat ne dépend ni du
+     *   nombre de cœurs ni de l'ordre d'exécution.
+     * - Arrêt anticipé (course par élimination) : après chaque tour, un coup dont
+     *   la moyenne plus 'ecarts' erreurs types reste sous la moyenne moins
+     *   'ecarts' erreurs types du meilleur coup est éliminé ; la recherche
+     *   s'arrête quand il ne reste qu'un coup, quand les coups restants ont K
+     *   simulations, ou quand le budget de temps est dépassé (le premier tour est
+     *   toujours terminé).
+     * - Le premier tirage d'un coup est celui de meilleurCoup : avec K = 1, le
+     *   coup retourné est celui de meilleurCoup avec le même générateur.
+     *
+     * @param plateau  plateau de jeu (char[n][n]), non modifié.
+     * @param K        nombre maximal de simulations par coup (≥ 1).
+     * @param budgetMs budget de temps en ms, 0 pour aucun.
+     * @param alea     générateur de la partie (une valeur consommée par appel).
+     *
+     * @return le détail de l'évaluation (voir EvaluationMonteCarlo).
+     *
+     * Complexité temporelle :
+     * - Au plus K simulations par coup qui passe le filtre coupPossible, soit
+     *   O(K * n² * coût d'une simulation), divisé par le nombre de cœurs ;
+     *   l'arrêt anticipé retire les coups éliminés des tours suivants.
+     */
+    public static EvaluationMonteCarlo monteCarlo(char[][] plateau, int K, long budgetMs, RandomGenerator alea) {
+        return monteCarlo(plateau, K, budgetMs, 3.0, alea);
+    }
+
+    /**
+     * Identique à monteCarlo(plateau, K, budgetMs, alea), avec un seuil
+     * d'élimination explicite.
+     *
+     * @param ecarts nombre d'erreurs types qui doivent séparer un coup du
+     *               meilleur pour qu'il soit éliminé (3 par défaut ;
+     *               Double.POSITIVE_INFINITY pour ne jamais arrêter avant K).
+     *
+     * Complexité temporelle : voir monteCarlo(plateau, K, budgetMs, alea).
+     */
+    public static EvaluationMonteCarlo monteCarlo(char[][] plateau, int K, long budgetMs, double ecarts,
+                                                  RandomGenerator alea) {
+        if (K < 1) {
+            throw new IllegalArgumentException("K doit être ≥ 1 : " + K);
+        }
+        long debut = System.nanoTime();
+        long echeance = (budgetMs > 0) ? debut + budgetMs * 1_000_000L : Long.MAX_VALUE;
+        int n = plateau.length;
+        long graine = alea.nextLong();
+        boolean stable = estStable(plateau);
+        PlateauPlat source = PlateauPlat.depuis(plateau); // partagé en lecture seule
+
+        // Coups candidats, dans l'ordre du parcours de meilleurCoup
+        int[] numeros = new int[2 * n * n];
+        int m = 0;
+        for (int k = 0; k < 2 * n * n; k++) {
+            int i = (k >> 1) / n, j = (k >> 1) % n;
+            int i2 = ((k & 1) == 0) ? i : i + 1;
+            int j2 = ((k & 1) == 0) ? j + 1 : j;
+            if (i2 < n && j2 < n && (!stable || coupPossible(i, j, i2, j2, plateau))) {
+                numeros[m++] = k;
+            }
+        }
+        EvaluationMonteCarlo evaluation = new EvaluationMonteCarlo(n, Arrays.copyOf(numeros, m));
+
+        int[] actifs = new int[m]; // indices (dans evaluation) des coups encore en course
+        int nbActifs = m;
+        for (int c = 0; c < m; c++) actifs[c] = c;
+
+        while (nbActifs > 0) {
+            int dejaFaits = evaluation.tirages[actifs[0]]; // identique pour tous les actifs
+            int lot = Math.min(EvaluationMonteCarlo.LOT, K - dejaFaits);
+            int[] enCourse = Arrays.copyOf(actifs, nbActifs);
+            int[] scores = new int[nbActifs * lot];
+
+            IntStream.range(0, scores.length).parallel().forEach(t -> {
+                int k = evaluation.numeros[enCourse[t / lot]];
+                int i = (k >> 1) / n, j = (k >> 1) % n;
+                int b = ((k & 1) == 0) ? i * n + j + 1 : (i + 1) * n + j;
+                scores[t] = SimulationPlate.pour(n).simuler(source, i * n + j, b, stable,
+                                                            graineTirage(graine, k, dejaFaits + t % lot));
+            });
+            for (int t = 0; t < scores.length; t++) {
+                evaluation.ajouter(enCourse[t / lot], scores[t]);
+            }
+            evaluation.tours++;
+
+            if (dejaFaits + lot >= K || System.nanoTime() >= echeance) {
+                break;
+            }
+            nbActifs = evaluation.eliminer(actifs, nbActifs, ecarts);
+            if (nbActifs <= 1) {
+                evaluation.arretAnticipe = true;
+                break;
+            }
+        }
+
+        evaluation.dureeNs = System.nanoTime() - debut;
+        return evaluation;
+    }
+
+    /**
+     * Graine de la simulation numéro 'tirage' du coup numéro k : le tirage 0 a
+     * la graine de meilleurCoup (graineCoup), les suivants en sont dérivés.
+     *
+     * Complexité temporelle : O(1).
+     */
+    static long graineTirage(long graine, int k, int tirage) {
+        long premiere = graineCoup(graine, k);
+        return (tirage == 0) ? premiere : graineCoup(premiere, tirage);
+    }
+
+    /**
+     * Résultat de monteCarlo : nombre de simulations, moyenne et variance du
+     * score de chaque coup candidat, et coup de meilleure moyenne.
+     */
+    static final class EvaluationMonteCarlo {
+
+        /** Simulations par coup et par tour. */
+        static final int LOT = 8;
+
+        final int n;
+        final int[] numeros;       // numéro de chaque coup candidat (voir coupDepuisNumero)
+        final int[] tirages;       // simulations faites pour chaque coup
+        final long[] sommes;       // somme des scores
+        final long[] sommesCarres; // somme des carrés des scores
+        int tours;
+        boolean arretAnticipe;     // true si un coup a été séparé des autres avant K
+        long dureeNs;
+
+        EvaluationMonteCarlo(int n, int[] numeros) {
+            this.n = n;
+            this.numeros = numeros;
+            this.tirages = new int[numeros.length];
+            this.sommes = new long[numeros.length];
+            this.sommesCarres = new long[numeros.length];
+        }
+
+        /** Ajoute un score au coup d'indice c. Complexité temporelle : O(1). */
+        void ajouter(int c, int score) {
+            tirages[c]++;
+            sommes[c] += score;
+            sommesCarres[c] += (long) score * score;
+        }
+
+        /** Score moyen du coup d'indice c. Complexité temporelle : O(1). */
+        double moyenne(int c) {
+            return (double) sommes[c] / Math.max(1, tirages[c]);
+        }
+
+        /** Variance (corrigée) du score du coup d'indice c. Complexité temporelle : O(1). */
+        double variance(int c) {
+            int k = tirages[c];
+            if (k < 2) {
+                return 0;
+            }
+            double moyenne = moyenne(c);
+            return Math.max(0, (sommesCarres[c] - k * moyenne * moyenne) / (k - 1));
+        }
+
+        /** Erreur type de la moyenne du coup d'indice c. Complexité temporelle : O(1). */
+        double erreurType(int c) {
+            return Math.sqrt(variance(c) / Math.max(1, tirages[c]));
+        }
+
+        /**
+         * Indice du coup de meilleure moyenne (à égalité, le premier du parcours),
+         * ou -1 s'il n'y a aucun candidat.
+         *
+         * Complexité temporelle : O(nombre de candidats).
+         */
+        int meilleur() {
+            int meilleur = -1;
+            for (int c = 0; c < numeros.length; c++) {
+                if (tirages[c] > 0 && (meilleur < 0 || moyenne(c) > moyenne(meilleur))) {
+                    meilleur = c;
+                }
+            }
+            return meilleur;
+        }
+
+        /**
+         * Coup {x1, y1, x2, y2} de meilleure moyenne, ou {-1, -1, -1, -1} si aucun
+         * coup ne supprime de bonbon en moyenne.
+         *
+         * Complexité temporelle : O(nombre de candidats).
+         */
+        int[] meilleurCoup() {
+            int c = meilleur();
+            return coupDepuisNumero((c < 0 || sommes[c] == 0) ? -1 : numeros[c], n);
+        }
+
+        /** Nombre total de simulations. Complexité temporelle : O(nombre de candidats). */
+        long simulations() {
+            long total = 0;
+            for (int t : tirages) total += t;
+            return total;
+        }
+
+        /**
+         * Retire de 'actifs' les coups séparés du meilleur coup actif d'au moins
+         * 'ecarts' erreurs types (intervalles disjoints).
+         *
+         * @return le nombre de coups encore actifs (en tête de 'actifs').
+         *
+         * Complexité temporelle : O(nbActifs).
+         */
+        int eliminer(int[] actifs, int nbActifs, double ecarts) {
+            int meilleur = actifs[0];
+            for (int t = 1; t < nbActifs; t++) {
+                if (moyenne(actifs[t]) > moyenne(meilleur)) {
+                    meilleur = actifs[t];
+                }
+            }
+            double seuil = moyenne(meilleur) - ecarts * erreurType(meilleur);
+            int garde = 0;
+            for (int t = 0; t < nbActifs; t++) {
+                int c = actifs[t];
+                if (c == meilleur || moyenne(c) + ecarts * erreurType(c) >= seuil) {
+                    actifs[garde++] = c;
+                }
+            }
+            return garde;
+        }
+
+        @Override
+        public String toString() {
+            int c = meilleur();
+            return numeros.length + " coups, " + simulations() + " simulations en " + tours + " tours"
+                + (arretAnticipe ? " (arrêt anticipé)" : "")
+                + ((c < 0) ? "" : String.format(Locale.ROOT, ", meilleur : %.2f ± %.2f",
+                                                moyenne(c), Math.sqrt(variance(c))));
+        }
+    }
+
+    /**
+     * Meilleur coup "à tout moment", borné par une échéance : les coups candidats
+     * sont simulés un par un, les plus prometteurs d'abord, et la recherche
+     * s'arrête à l'échéance ou sur demande d'un autre thread en gardant le
+     * meilleur coup trouvé jusque-là.
+     *
+     * - Candidats : comme meilleurCoup, les coups qui passent le filtre
+     *   coupPossible sur un plateau stable (tous les coups sinon), trouvés par
+     *   les motifs locaux de trouverCoup plutôt qu'en examinant chaque paire.
+     * - Ordre : par taille décroissante des séries que le coup forme
+     *   immédiatement (promesse, lue autour des deux cases permutées, sans
+     *   simulation), puis dans l'ordre du parcours de meilleurCoup ; le tri est
+     *   un tri par paquets en O(n²).
+     * - Chaque simulation utilise la graine de meilleurCoup (graineCoup) et, à
+     *   score égal, le plus petit numéro de coup l'emporte : si tous les
+     *   candidats sont couverts, le coup retourné est exactement celui de
+     *   meilleurCoup avec le même générateur.
+     * - L'échéance et 'annulation' sont consultées avant chaque simulation
+     *   (annulation coopérative : le thread de recherche s'arrête de lui-même). Si
+     *   aucune simulation n'a pu être faite, le coup retenu est le plus prometteur,
+     *   qui forme au moins une série sur un plateau stable.
+     *
+     * @param plateau    plateau de jeu (char[n][n]), non modifié.
+     * @param echeanceNs instant limite, en temps de System.nanoTime()
+     *                   (Long.MAX_VALUE pour aucune).
+     * @param annulation drapeau levé par un autre thread pour arrêter la
+     *                   recherche, ou null.
+     * @param alea       générateur de la partie (une valeur consommée par appel).
+     *
+     * @return le détail de la recherche (voir RechercheBornee).
+     *
+     * Complexité temporelle : O(n²) pour le tri des candidats, plus une
+     * simulation par candidat couvert avant l'échéance ; la latence est bornée
+     * par l'échéance plus une simulation et le tri.
+     */
+    public static RechercheBornee meilleurCoupAvant(char[][] plateau, long echeanceNs,
+                                                    AtomicBoolean annulation, RandomGenerator alea) {
+        long debut = System.nanoTime();
+        long debutNs = Metriques.debut();
+        int n = plateau.length;
+        long graine = alea.nextLong();
+        boolean stable = estStable(plateau);
+        SimulationPlate simulation = SimulationPlate.pour(n);
+        simulation.source.charger(plateau);
+
+        // Candidats : sur un plateau stable, les coups des motifs de parcourirMotifs
+        // (ceux qui passent coupPossible), sans examiner les 2n² paires une à une
+        int[] promesses = new int[2 * n * n]; // promesse + 1 de chaque candidat, 0 sinon
+        if (stable) {
+            parcourirMotifs(plateau, promesses);
+        } else {
+            for (int k = 0; k < 2 * n * n; k++) {
+                boolean droite = (k & 1) == 0;
+                promesses[k] = (droite ? (k >> 1) % n + 1 < n : (k >> 1) / n + 1 < n) ? 1 : 0;
+            }
+        }
+        // Tri par paquets, promesses décroissantes, puis numéros croissants
+        int[] debuts = new int[PROMESSE_MAX + 2];
+        int m = 0;
+        for (int k = 0; k < 2 * n * n; k++) {
+            if (promesses[k] != 0) {
+                if (stable) {
+                    int i = (k >> 1) / n, j = (k >> 1) % n;
+                    promesses[k] = 1 + (((k & 1) == 0) ? promesse(plateau, i, j, i, j + 1)
+                                                       : promesse(plateau, i, j, i + 1, j));
+                }
+                debuts[PROMESSE_MAX - promesses[k] + 2]++;
+                m++;
+            }
+        }
+        for (int p = 1; p < debuts.length; p++) {
+            debuts[p] += debuts[p - 1];
+        }
+        int[] ordre = new int[m];
+        for (int k = 0; k < 2 * n * n; k++) {
+            if (promesses[k] != 0) {
+                ordre[debuts[PROMESSE_MAX - promesses[k] + 1]++] = k;
+            }
+        }
+
+        RechercheBornee recherche = new RechercheBornee(n, m);
+        for (int t = 0; t < m; t++) {
+            if (annulation != null && annulation.get()) {
+                recherche.annulee = true;
+                break;
+            }
+            if (System.nanoTime() >= echeanceNs) {
+                recherche.echeanceAtteinte = true;
+                break;
+            }
+            int k = ordre[t];
+            int a = (k >> 1), b = ((k & 1) == 0) ? a + 1 : a + n;
+            int score = simulation.simuler(simulation.source, a, b, stable, graineCoup(graine, k));
+            recherche.couverts++;
+            if (score > recherche.score || (score == recherche.score && score > 0 && k < recherche.numero)) {
+                recherche.score = score;
+                recherche.numero = k;
+            }
+        }
+        if (recherche.numero < 0 && recherche.couverts == 0 && stable && m > 0) {
+            recherche.numero = ordre[0]; // rien de simulé : le coup le plus prometteur
+        }
+
+        recherche.dureeNs = System.nanoTime() - debut;
+        if (debutNs != 0) {
+            Metriques.MEILLEUR_COUP.depuis(debutNs);
+            Metriques.SIMULATIONS_PAR_COUP.enregistrer(recherche.couverts);
+        }
+        return recherche;
+    }
+
+    /** Plus grande promesse d'un coup : deux cases, chacune au plus 5 + 5 bonbons alignés. */
+    private static final int PROMESSE_MAX = 20;
+
+    /**
+     * Nombre de bonbons des séries formées immédiatement par la permutation de
+     * (x1, y1) et (x2, y2) (séries d'au plus 5 comptées autour de chaque case,
+     * comme dans formeSerie), sans simulation ni copie du plateau.
+     *
+     * Complexité temporelle : O(1).
+     */
+    private static int promesse(char[][] plateau, int x1, int y1, int x2, int y2) {
+        return tailleSeries(plateau, x1, y1, plateau[x2][y2], x2, y2)
+            + tailleSeries(plateau, x2, y2, plateau[x1][y1], x1, y1);
+    }
+
+    /**
+     * Taille des séries (ligne et colonne, 0 pour une série de moins de 3) que
+     * forme 'bonbon' placé en (l, c), la case (lo, co) arrêtant la série (voir
+     * formeSerie).
+     *
+     * Complexité temporelle : O(1).
+     */
+    private static int tailleSeries(char[][] plateau, int l, int c, char bonbon, int lo, int co) {
+        if (bonbon == '-') {
+            return 0;
+        }
+        int n = plateau.length;
+        int horizontal = 1;
+        for (int j = c - 1; j >= 0 && j >= c - 2 && !(l == lo && j == co) && plateau[l][j] == bonbon; j--) horizontal++;
+        for (int j = c + 1; j < n && j <= c + 2 && !(l == lo && j == co) && plateau[l][j] == bonbon; j++) horizontal++;
+        int vertical = 1;
+        for (int i = l - 1; i >= 0 && i >= l - 2 && !(i == lo && c == co) && plateau[i][c] == bonbon; i--) vertical++;
+        for (int i = l + 1; i < n && i <= l + 2 && !(i == lo && c == co) && plateau[i][c] == bonbon; i++) vertical++;
+        return ((horizontal >= 3) ? horizontal : 0) + ((vertical >= 3) ? vertical : 0);
+    }
+
+    /**
+     * Résultat de meilleurCoupAvant : meilleur coup trouvé, et couverture des
+     * candidats au moment de l'arrêt.
+     */
+    static final class RechercheBornee {
+
+        final int n;
+        final int candidats;      // coups candidats (après le filtre coupPossible)
+        int couverts;             // candidats simulés avant l'arrêt
+        int numero = -1;          // numéro du meilleur coup (voir coupDepuisNumero), -1 : aucun
+        int score;                // son score simulé (0 s'il n'a pas été simulé)
+        boolean echeanceAtteinte; // arrêt à l'échéance
+        boolean annulee;          // arrêt demandé par un autre thread
+        long dureeNs;
+
+        RechercheBornee(int n, int candidats) {
+            this.n = n;
+            this.candidats = candidats;
+        }
+
+        /**
+         * Coup {x1, y1, x2, y2} retenu, ou {-1, -1, -1, -1} s'il n'y en a aucun.
+         *
+         * Complexité temporelle : O(1).
+         */
+        int[] meilleurCoup() {
+            return coupDepuisNumero(numero, n);
+        }
+
+        /** true si tous les candidats ont été simulés. Complexité temporelle : O(1). */
+        boolean complete() {
+            return couverts == candidats;
+        }
+
+        @Override
+        public String toString() {
+            return couverts + "/" + candidats + " coups simulés en "
+                + String.format(Locale.ROOT, "%.2f ms", dureeNs / 1e6)
+                + (annulee ? " (annulée)" : echeanceAtteinte ? " (échéance atteinte)" : "")
+                + ", meilleur score " + score;
+        }
+    }
+
+    /**
+     * Index des coups jouables du plateau (coups qui passent le filtre
+     * coupPossible), tenu à jour au fil de la partie au lieu d'être redécouvert
+     * par un parcours des 2n² paires adjacentes à chaque tour.
+     *
+     * - Les cases modifiées (permutation, suppression, chute, remplissage) sont
+     *   signalées au fur et à mesure (signaler, signalerColonnes) ;
+     * - mettreAJour réexamine seulement les coups dont le voisinage lu par
+     *   coupPossible (deux cases de part et d'autre de chaque case permutée, sur
+     *   sa ligne et sa colonne) contient une case signalée : au plus 72 coups par
+     *   case modifiée ;
+     * - les coups jouables sont rangés dans une liste compacte (ajout et retrait
+     *   en O(1)) : existeCoup est en O(1), et meilleurCoup ne simule que ces coups.
+     *
+     * Comme coupPossible, l'index n'a de sens que sur un plateau stable (après la
+     * cascade) : c'est là que mettreAJour et meilleurCoup doivent être appelés.
+     */
+    static final class IndexCoups {
+
+        final int n;
+        private final boolean[] jouable;   // par numéro de coup k
+        private final int[] liste;         // numéros des coups jouables
+        private final int[] position;      // position de chaque coup jouable dans liste
+        private int nombre;
+
+        private final int[] signalees;     // cases signalées depuis la dernière mise à jour
+        private int nbSignalees;
+        private final int[] marqueCase;    // tampon de la dernière signalisation de chaque case
+        private final int[] marqueCoup;    // tampon du dernier réexamen de chaque coup
+        private int tampon = 1;
+        long reexamens;                    // coups réexaminés depuis la création
+
+        /**
+         * Construit l'index d'un plateau par un parcours complet.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        IndexCoups(char[][] plateau) {
+            this.n = plateau.length;
+            this.jouable = new boolean[2 * n * n];
+            this.liste = new int[2 * n * n];
+            this.position = new int[2 * n * n];
+            this.signalees = new int[n * n];
+            this.marqueCase = new int[n * n];
+            this.marqueCoup = new int[2 * n * n];
+            for (int k = 0; k < 2 * n * n; k++) {
+                reexaminer(k, plateau);
+            }
+        }
+
+        /**
+         * Reconstruit l'index d'un autre plateau de même taille (plateau remélangé,
+         * nouvelle partie) par un parcours complet, en gardant ses tableaux.
+         *
+         * @return cet index.
+         *
+         * Complexité temporelle : O(n²), sans allocation.
+         */
+        IndexCoups reconstruire(char[][] plateau) {
+            Arrays.fill(jouable, false);
+            nombre = 0;
+            nbSignalees = 0;
+            tampon++; // les marques précédentes ne valent plus
+            for (int k = 0; k < 2 * n * n; k++) {
+                reexaminer(k, plateau);
+            }
+            return this;
+        }
+
+        /**
+         * Signale que la case (l, c) a changé.
+         *
+         * Complexité temporelle : O(1).
+         */
+        void signaler(int l, int c) {
+            int indice = l * n + c;
+            if (marqueCase[indice] != tampon) {
+                marqueCase[indice] = tampon;
+                signalees[nbSignalees++] = indice;
+            }
+        }
+
+        /**
+         * Signale, pour chaque colonne c, que les cases des lignes 0 à plusBasse[c]
+         * ont changé (-1 : colonne intacte). C'est la zone touchée par une étape de
+         * cascade : suppression, chute des bonbons au-dessus, remplissage du haut.
+         *
+         * Complexité temporelle : O(n + cases signalées).
+         */
+        void signalerColonnes(int[] plusBasse) {
+            for (int c = 0; c < n; c++) {
+                for (int l = 0; l <= plusBasse[c]; l++) {
+                    signaler(l, c);
+                }
+            }
+        }
+
+        /**
+         * Réexamine les coups voisins des cases signalées, puis oublie les signalements.
+         *
+         * @param plateau plateau stable, après les modifications signalées.
+         *
+         * Complexité temporelle : O(cases signalées), au plus 72 coups par case.
+         */
+        void mettreAJour(char[][] plateau) {
+            for (int s = 0; s < nbSignalees; s++) {
+                int l = signalees[s] / n, c = signalees[s] % n;
+                // première case du coup à au plus 2 cases de (l, c), ou 3 en amont
+                // (la deuxième case est alors à droite ou en dessous)
+                for (int i = Math.max(0, l - 3); i <= Math.min(n - 1, l + 2); i++) {
+                    for (int j = Math.max(0, c - 3); j <= Math.min(n - 1, c + 2); j++) {
+                        for (int d = 0; d < 2; d++) {
+                            int k = ((i * n + j) << 1) | d;
+                            if (marqueCoup[k] != tampon) {
+                                marqueCoup[k] = tampon;
+                                reexaminer(k, plateau);
+                            }
+                        }
+                    }
+                }
+            }
+            nbSignalees = 0;
+            tampon++;
+        }
+
+        /**
+         * Recalcule si le coup numéro k est jouable et met la liste à jour.
+         *
+         * Complexité temporelle : O(1).
+         */
+        private void reexaminer(int k, char[][] plateau) {
+            reexamens++;
+            int i = (k >> 1) / n, j = (k >> 1) % n;
+            int i2 = ((k & 1) == 0) ? i : i + 1;
+            int j2 = ((k & 1) == 0) ? j + 1 : j;
+            boolean ok = i2 < n && j2 < n && coupPossible(i, j, i2, j2, plateau);
+            if (ok && !jouable[k]) {
+                jouable[k] = true;
+                position[k] = nombre;
+                liste[nombre++] = k;
+            } else if (!ok && jouable[k]) {
+                jouable[k] = false;
+                int dernier = liste[--nombre];
+                liste[position[k]] = dernier;
+                position[dernier] = position[k];
+            }
+        }
+
+        /** Indique s'il reste au moins un coup jouable. Complexité temporelle : O(1). */
+        boolean existeCoup() {
+            return nombre > 0;
+        }
+
+        /** Nombre de coups jouables. Complexité temporelle : O(1). */
+        int nombre() {
+            return nombre;
+        }
+
+        /** Indique si le coup numéro k est jouable. Complexité temporelle : O(1). */
+        boolean estJouable(int k) {
+            return jouable[k];
+        }
+
+        /**
+         * Même coup que meilleurCoup(plateau, null, alea) (mêmes graines, même
+         * départage), en ne simulant que les coups de l'index au lieu de parcourir
+         * toutes les paires adjacentes.
+         *
+         * @param plateau plateau stable, à jour avec l'index.
+         * @param alea    générateur de la partie (une valeur consommée par appel).
+         *
+         * Complexité temporelle : O(n²) pour charger le plateau à plat, plus une
+         * simulation par coup jouable.
+         */
+        int[] meilleurCoup(char[][] plateau, RandomGenerator alea) {
+            long graine = alea.nextLong();
+            if (nombre == 0) {
+                return coupDepuisNumero(-1, n);
+            }
+            long debutNs = Metriques.debut();
+            SimulationPlate simulation = SimulationPlate.pour(n);
+            simulation.source.charger(plateau);
+
+            int meilleurScore = 0;
+            int meilleurNumero = -1;
+            for (int t = 0; t < nombre; t++) {
+                int k = liste[t];
+                int i = (k >> 1) / n, j = (k >> 1) % n;
+                int b = ((k & 1) == 0) ? i * n + j + 1 : (i + 1) * n + j;
+                int score = simulation.simuler(simulation.source, i * n + j, b, true, graineCoup(graine, k));
+                if (score > meilleurScore || (score == meilleurScore && score > 0 && k < meilleurNumero)) {
+                    meilleurScore = score;
+                    meilleurNumero = k;
+                }
+            }
+            if (debutNs != 0) {
+                Metriques.MEILLEUR_COUP.depuis(debutNs);
+                Metriques.SIMULATIONS_PAR_COUP.enregistrer(nombre);
+            }
+            return coupDepuisNumero(meilleurNumero, n);
+        }
+    }
+
+    /**
+     * Met le thread actuel en pause pendant un certain nombre de millisecondes.
+     *
+     * @param ms durée de la pause en millisecondes.
+     *
+     * En cas d'interruption, l'état d'interruption du thread est restauré.
+     *
+     * Complexité temporelle :
+     * - L'appel à Thread.sleep(ms) est conceptuellement O(1) du point de vue
+     *   algorithmique (on ne fait pas de travail proportionnel à n).
+     */
+    public static void timeSlep(int ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mesure expérimentalement le temps d'exécution moyen de meilleurCoup(plateau)
+     * pour une taille de plateau donnée n, sur un certain nombre d'essais.
+     *
+     * @param n      taille du plateau (n x n).
+     * @param essais nombre d'essais à effectuer pour la moyenne (>= 1).
+     *
+     * @return temps moyen d'exécution en nanosecondes.
+     *
+     * Complexité temporelle :
+     * - Appel interne à meilleurCoup : O(n⁵) en théorie.
+     * - Répété 'essais' fois → O(essais * n⁵).
+     *   Comme 'essais' est constant et petit (3 à 5), cela reste raisonnable.
+     */
+    public static long analyserComplexite(int n, int essais) {
+        return analyserComplexite(n, essais, false);
+    }
+
+    /**
+     * Identique à analyserComplexite(n, essais), en choisissant la version de
+     * meilleurCoup mesurée.
+     *
+     * @param parallele true pour mesurer meilleurCoupParallele, false pour
+     *                  meilleurCoup (séquentiel).
+     *
+     * Complexité temporelle : voir analyserComplexite(n, essais).
+     */
+    public static long analyserComplexite(int n, int essais, boolean parallele) {
+        long total = 0;
+
+        for (int k = 0; k < essais; k++) {
+            char[][] plateau = construireJeux(n);
+            long debut = System.nanoTime();
+
+            if (parallele) {
+                meilleurCoupParallele(plateau);
+            } else {
+                meilleurCoup(plateau);
+            }
+
+            long fin = System.nanoTime();
+            total += (fin - debut);
+        }
+
+        return total / essais; // temps moyen
+    }
+
+    /**
+     * Effectue une analyse expérimentale de la complexité de la fonction
+     * meilleurCoup() pour différentes tailles de plateau.
+     *
+     * Elle mesure le temps d'exécution moyen de meilleurCoup(n x n) et de
+     * meilleurCoupParallele(n x n) sur 'essais' plateaux pour chaque taille,
+     * puis affiche les résultats.
+     *
+     * But : comparer expérimentalement avec la complexité théorique O(n⁵)
+     * en traçant un graphique (Excel / Google Sheets).
+     *
+     * Complexité temporelle :
+     *  → Mesure expérimentale sur n ∈ tailles[]
+     *  → Appel interne à meilleurCoup → O(n⁵)
+     *  → Total = O(k · n⁵) où k = nombre d’essais (petit et constant).
+     */
+    public static void analyseComplexite() {
+        int essais = 100;
+        int[] tailles = {3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30}; // tailles à tester
+
+        Ecran.afficherln("=== Analyse expérimentale de la complexité de meilleurCoup ===");
+        Ecran.afficherln("Taille (n)   Temps moyen (nanosecondes) : séquentiel | parallèle");
+
+        for (int n : tailles) {
+            long temps = analyserComplexite(n, essais, false);
+            long tempsParallele = analyserComplexite(n, essais, true);
+            Ecran.afficherln(n + " x " + n + "     ->     " + temps + " ns | " + tempsParallele + " ns");
+        }
+
+        Ecran.afficherln("\nCes résultats peuvent être copiés dans Excel / Google Sheets pour tracer un graphique.");
+        Ecran.afficherln("On pourra comparer la courbe obtenue à une croissance théorique en n⁵.");
+    }
+
+    /**
+     * Simulation en masse de parties bot contre lui-même, réparties sur tous les
+     * cœurs, pour évaluer une modification du bot sur des milliers (ou millions)
+     * de parties au lieu d'en regarder une dans le terminal.
+     *
+     * - La partie numéro i part du plateau construireJeux(n, alea_i), où alea_i est
+     *   un générateur propre à la partie, de graine dérivée de (graine, i) : le
+     *   lot est reproductible et ne dépend pas du nombre de cœurs.
+     * - Chaque partie est jouée sans affichage (Rendu.AUCUN) par le bot, avec
+     *   meilleurCoup, jusqu'à 'toursMax' coups ou jusqu'à ce qu'il n'y ait plus
+     *   de coup.
+     * - Les parties sont indépendantes (flux parallèle sur le ForkJoinPool commun) :
+     *   chaque partie écrit ses résultats dans sa propre case des tableaux du bilan,
+     *   et l'histogramme des cascades utilise des compteurs répartis (LongAdder),
+     *   sans verrou partagé, d'où un débit quasi proportionnel au nombre de cœurs.
+     *
+     * @param parties  nombre de parties à jouer.
+     * @param n        taille des plateaux.
+     * @param graine   graine du lot.
+     * @param toursMax nombre maximal de coups par partie.
+     *
+     * @return le bilan agrégé du lot (voir BilanLot.versCsv / versJson).
+     *
+     * Complexité temporelle :
+     * - parties * (coût d'une partie) / nombre de cœurs.
+     */
+    public static BilanLot simulationLot(int parties, int n, long graine, int toursMax) {
+        return simulationLot(parties, n, graine, toursMax, CandyCrush::bot);
+    }
+
+    /**
+     * Identique à simulationLot(parties, n, graine, toursMax), avec un autre bot
+     * (par exemple () -> bot(profondeur, largeur)), pour comparer deux bots sur
+     * les mêmes plateaux.
+     *
+     * @param joueurs fournit le joueur de chaque partie (appelé une fois par partie).
+     *
+     * Complexité temporelle : voir simulationLot(parties, n, graine, toursMax).
+     */
+    public static BilanLot simulationLot(int parties, int n, long graine, int toursMax,
+                                         Supplier<Joueur> joueurs) {
+        BilanLot bilan = new BilanLot(parties, n, graine, toursMax);
+        long debut = System.nanoTime();
+
+        IntStream.range(0, parties).parallel().forEach(i -> {
+            SplittableRandom alea = new SplittableRandom(graineCoup(graine, i));
+            char[][] plateau = construireJeux(n, alea);
+            ResultatPartie resultat = jouerPartie(plateau, joueurs.get(), Rendu.AUCUN, alea, toursMax,
+                (tour, p, scoreTour, cascade) -> {
+                    if (tour > 0) {
+                        bilan.cascades[Math.min(cascade, BilanLot.CASCADE_MAX)].increment();
+                    }
+                });
+            bilan.scores[i] = resultat.score;
+            bilan.tours[i] = resultat.tours;
+            bilan.cascadesMax[i] = resultat.cascadeMax;
+        });
+
+        bilan.dureeNs = System.nanoTime() - debut;
+        return bilan;
+    }
+
+    /**
+     * Bilan d'un lot de parties (voir simulationLot) : distribution des scores,
+     * des longueurs de partie et des profondeurs de cascade, et débit.
+     */
+    static final class BilanLot {
+
+        /** Les cascades plus longues sont comptées dans la dernière case. */
+        static final int CASCADE_MAX = 32;
+
+        final int parties, n, toursMax;
+        final long graine;
+        final long[] scores;      // score de chaque partie
+        final int[] tours;        // coups joués dans chaque partie
+        final int[] cascadesMax;  // plus longue cascade de chaque partie
+        final LongAdder[] cascades = new LongAdder[CASCADE_MAX + 1]; // coups par profondeur
+        long dureeNs;
+
+        BilanLot(int parties, int n, long graine, int toursMax) {
+            this.parties = parties;
+            this.n = n;
+            this.graine = graine;
+            this.toursMax = toursMax;
+            this.scores = new long[parties];
+            this.tours = new int[parties];
+            this.cascadesMax = new int[parties];
+            for (int k = 0; k < cascades.length; k++) {
+                cascades[k] = new LongAdder();
+            }
+        }
+
+        /** Parties jouées par seconde. Complexité temporelle : O(1). */
+        double partiesParSeconde() {
+            return parties * 1e9 / Math.max(1, dureeNs);
+        }
+
+        /** Coups joués par seconde, toutes parties confondues. Complexité : O(parties). */
+        double coupsParSeconde() {
+            long coups = 0;
+            for (int t : tours) coups += t;
+            return coups * 1e9 / Math.max(1, dureeNs);
+        }
+
+        /**
+         * Bilan au format CSV "mesure,statistique,valeur" : pour le score, la
+         * longueur de partie et la cascade maximale, moyenne, écart-type, minimum,
+         * médiane, p90, p99 et maximum ; puis l'histogramme des profondeurs de
+         * cascade et le débit.
+         *
+         * Complexité temporelle : O(parties * log(parties)) (tri pour les centiles).
+         */
+        String versCsv() {
+            StringBuilder csv = new StringBuilder("mesure,statistique,valeur\n");
+            csv.append("lot,parties,").append(parties).append('\n');
+            csv.append("lot,n,").append(n).append('\n');
+            csv.append("lot,graine,").append(graine).append('\n');
+            csv.append("lot,tours_max,").append(toursMax).append('\n');
+            for (String[] ligne : resume()) {
+                csv.append(ligne[0]).append(',').append(ligne[1]).append(',').append(ligne[2]).append('\n');
+            }
+            for (int k = 0; k <= CASCADE_MAX; k++) {
+                csv.append("cascade,").append(k).append(',').append(cascades[k].sum()).append('\n');
+            }
+            return csv.toString();
+        }
+
+        /**
+         * Même bilan que versCsv, au format JSON.
+         *
+         * Complexité temporelle : O(parties * log(parties)).
+         */
+        String versJson() {
+            StringBuilder json = new StringBuilder("{\n");
+            json.append("  \"parties\": ").append(parties)
+                .append(",\n  \"n\": ").append(n)
+                .append(",\n  \"graine\": ").append(graine)
+                .append(",\n  \"tours_max\": ").append(toursMax);
+            String mesure = null;
+            for (String[] ligne : resume()) {
+                if (!ligne[0].equals(mesure)) {
+                    json.append(mesure == null ? ",\n" : "\n  },\n");
+                    json.append("  \"").append(ligne[0]).append("\": {");
+                    mesure = ligne[0];
+                } else {
+                    json.append(',');
+                }
+                json.append("\n    \"").append(ligne[1]).append("\": ").append(ligne[2]);
+            }
+            json.append("\n  },\n  \"cascade\": [");
+            for (int k = 0; k <= CASCADE_MAX; k++) {
+                json.append(k == 0 ? "" : ", ").append(cascades[k].sum());
+            }
+            return json.append("]\n}\n").toString();
+        }
+
+        /**
+         * Lignes {mesure, statistique, valeur} communes aux formats CSV et JSON.
+         *
+         * Complexité temporelle : O(parties * log(parties)).
+         */
+        private List<String[]> resume() {
+            List<String[]> lignes = new ArrayList<>();
+            long[] longueurs = new long[parties];
+            long[] profondeurs = new long[parties];
+            for (int i = 0; i < parties; i++) {
+                longueurs[i] = tours[i];
+                profondeurs[i] = cascadesMax[i];
+            }
+            decrire("score", scores, lignes);
+            decrire("tours", longueurs, lignes);
+            decrire("cascade_max", profondeurs, lignes);
+            lignes.add(new String[]{ "debit", "duree_s", formater(dureeNs / 1e9) });
+            lignes.add(new String[]{ "debit", "parties_par_s", formater(partiesParSeconde()) });
+            lignes.add(new String[]{ "debit", "coups_par_s", formater(coupsParSeconde()) });
+            return lignes;
+        }
+
+        /**
+         * Ajoute les statistiques descriptives d'une série de valeurs.
+         *
+         * Complexité temporelle : O(k log k) pour k valeurs.
+         */
+        private static void decrire(String mesure, long[] valeurs, List<String[]> lignes) {
+            long[] tri = valeurs.clone();
+            Arrays.sort(tri);
+            double somme = 0, sommeCarres = 0;
+            for (long v : tri) {
+                somme += v;
+                sommeCarres += (double) v * v;
+            }
+            int k = Math.max(1, tri.length);
+            double moyenne = somme / k;
+            double variance = Math.max(0, sommeCarres / k - moyenne * moyenne);
+            lignes.add(new String[]{ mesure, "moyenne", formater(moyenne) });
+            lignes.add(new String[]{ mesure, "ecart_type", formater(Math.sqrt(variance)) });
+            lignes.add(new String[]{ mesure, "min", String.valueOf(centile(tri, 0)) });
+            lignes.add(new String[]{ mesure, "p50", String.valueOf(centile(tri, 0.50)) });
+            lignes.add(new String[]{ mesure, "p90", String.valueOf(centile(tri, 0.90)) });
+            lignes.add(new String[]{ mesure, "p99", String.valueOf(centile(tri, 0.99)) });
+            lignes.add(new String[]{ mesure, "max", String.valueOf(centile(tri, 1)) });
+        }
+
+        /** Centile q (0..1) d'un tableau trié. Complexité temporelle : O(1). */
+        private static long centile(long[] tri, double q) {
+            if (tri.length == 0) {
+                return 0;
+            }
+            return tri[(int) Math.min(tri.length - 1, Math.ceil(q * tri.length) - (q > 0 ? 1 : 0))];
+        }
+
+        /** Nombre à virgule au format CSV / JSON (point décimal). */
+        private static String formater(double valeur) {
+            return String.format(Locale.ROOT, "%.3f", valeur);
+        }
+    }
+
+    /**
+     * Commande "simulation" : lance simulationLot et écrit le bilan en CSV et JSON.
+     *
+     * "java CandyCrush.java simulation <parties> <n> [graine] [toursMax] [préfixe]
+     * [profondeur] [largeur]" écrit <préfixe>.csv et <préfixe>.json (préfixe par
+     * défaut : "simulation") ; avec une profondeur > 1, les parties sont jouées
+     * par bot(profondeur, largeur) (largeur par défaut : 4).
+     *
+     * @param args arguments de la ligne de commande ("simulation" en premier).
+     *
+     * Complexité temporelle : celle de simulationLot.
+     */
+    public static void lancerSimulationLot(String[] args) {
+        int parties = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        int n = (args.length > 2) ? Integer.parseInt(args[2]) : 9;
+        long graine = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+        int toursMax = (args.length > 4) ? Integer.parseInt(args[4]) : 200;
+        String prefixe = (args.length > 5) ? args[5] : "simulation";
+        int profondeur = (args.length > 6) ? Integer.parseInt(args[6]) : 1;
+        int largeur = (args.length > 7) ? Integer.parseInt(args[7]) : 4;
+
+        BilanLot bilan = (profondeur > 1)
+            ? simulationLot(parties, n, graine, toursMax, () -> bot(profondeur, largeur))
+            : simulationLot(parties, n, graine, toursMax);
+        String csv = bilan.versCsv();
+        Ecran.afficher(csv);
+        try {
+            Files.writeString(Path.of(prefixe + ".csv"), csv);
+            Files.writeString(Path.of(prefixe + ".json"), bilan.versJson());
+        } catch (IOException e) {
+            Ecran.afficherln("Impossible d'écrire le bilan " + prefixe + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hôte de parties simultanées : des milliers de parties du même bot, chacune
+     * avec son plateau et son générateur, jouées tour par tour sur un nombre borné
+     * de threads.
+     *
+     * - Sessions : 'sessionsMax' sessions sont créées une fois pour toutes, chacune
+     *   avec son plateau char[n][n], sa Partie (plusBasse, index des coups) et son
+     *   générateur (GenerateurSplitMix, réinitialisé avec la graine de la
+     *   partie). Une partie terminée rend sa session au pool (file bornée) ;
+     *   demarrer attend qu'une session soit libre : la mémoire ne dépend que de
+     *   'sessionsMax', pas du nombre de parties jouées, et aucune partie n'alloue
+     *   de plateau.
+     * - Ordonnancement : un pool fixe de 'threads' threads. Une tâche joue un seul
+     *   tour (Partie.tour) puis remet la session en fin de file : les parties
+     *   avancent à tour de rôle, sans thread par partie, et au plus une tâche par
+     *   session est en file. Les tampons de calcul (PlateauBits, SimulationPlate)
+     *   sont ceux du thread qui joue le tour (un par thread, pas par partie).
+     * - Isolation : une session n'est jouée que par une tâche à la fois, et ne
+     *   partage avec les autres que le joueur, qui doit donc être sans état (bot(),
+     *   botBorne, botMonteCarlo) ; le résultat d'une partie ne dépend que de sa
+     *   graine, pas de l'ordre des tours entre sessions ni du nombre de threads.
+     */
+    static final class HoteParties implements AutoCloseable {
+
+        final int n, sessionsMax, toursMax;
+        private final Joueur joueur;
+        private final ExecutorService executeur;
+        private final ArrayBlockingQueue<Session> libres;
+        private volatile boolean ferme;
+
+        final LongAdder partiesJouees = new LongAdder();
+        final LongAdder toursJoues = new LongAdder();
+        final Histogramme latenceTour = new Histogramme("tour d'une session", "ns");
+
+        /**
+         * @param n           taille des plateaux.
+         * @param sessionsMax nombre maximal de parties en cours en même temps.
+         * @param threads     nombre de threads qui jouent les tours.
+         * @param toursMax    nombre maximal de coups par partie.
+         * @param joueur      joueur sans état, partagé par toutes les sessions.
+         *
+         * Complexité temporelle : O(sessionsMax * n²) (création des sessions).
+         */
+        HoteParties(int n, int sessionsMax, int threads, int toursMax, Joueur joueur) {
+            this.n = n;
+            this.sessionsMax = sessionsMax;
+            this.toursMax = toursMax;
+            this.joueur = joueur;
+            this.libres = new ArrayBlockingQueue<>(sessionsMax);
+            for (int s = 0; s < sessionsMax; s++) {
+                libres.add(new Session());
+            }
+            AtomicInteger numero = new AtomicInteger();
+            this.executeur = Executors.newFixedThreadPool(threads, tache -> {
+                Thread thread = new Thread(tache, "hote-parties-" + numero.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /**
+         * Démarre une partie sur construireJeux(n, GenerateurSplitMix(graine)), dans
+         * une session libre (attend qu'une partie se termine si toutes sont prises).
+         *
+         * @param graine graine de la partie (plateau initial, remplissages, bot).
+         *
+         * @return le bilan de la partie, disponible quand elle est terminée.
+         *
+         * @throws InterruptedException si le thread est interrompu pendant l'attente.
+         * @throws IllegalStateException si l'hôte est fermé (voir close).
+         *
+         * Complexité temporelle : O(n²) (construction du plateau), plus l'attente.
+         */
+        CompletableFuture<ResultatPartie> demarrer(long graine) throws InterruptedException {
+            if (ferme) {
+                throw new IllegalStateException("Hôte de parties fermé");
+            }
+            Session session = libres.take();
+            if (ferme) {
+                libres.add(session); // close() attend le retour de toutes les sessions
+                throw new IllegalStateException("Hôte de parties fermé");
+            }
+            session.alea.reinitialiser(graine);
+            construireDans(session.plateau, session.alea);
+            session.partie.commencer(session.plateau, joueur, Rendu.AUCUN, session.alea, toursMax, null, null);
+            session.fin = new CompletableFuture<>();
+            CompletableFuture<ResultatPartie> fin = session.fin;
+            executeur.execute(session);
+            return fin;
+        }
+
+        /**
+         * Attend la fin des parties en cours (toutes les sessions rendues au pool),
+         * puis arrête les threads. Une interruption arrête tout immédiatement.
+         * Après close, demarrer lève IllegalStateException, y compris s'il
+         * attendait déjà une session libre.
+         *
+         * Complexité temporelle : celle des parties en cours.
+         */
+        @Override
+        public synchronized void close() {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            Session[] rendues = new Session[sessionsMax];
+            int nb = 0;
+            try {
+                while (nb < sessionsMax) {
+                    Session session = libres.take();
+                    rendues[nb++] = session;
+                }
+                executeur.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executeur.shutdownNow();
+            } finally {
+                // réveille les appels de demarrer en attente : ils voient ferme et échouent
+                for (int s = 0; s < nb; s++) {
+                    libres.add(rendues[s]);
+                }
+            }
+        }
+
+        /** Une partie hébergée : plateau, générateur et état, réutilisés d'une partie à l'autre. */
+        private final class Session implements Runnable {
+
+            final char[][] plateau = new char[n][n];
+            final GenerateurSplitMix alea = new GenerateurSplitMix(0);
+            final Partie partie = new Partie(n);
+            CompletableFuture<ResultatPartie> fin;
+
+            /** Joue un tour, puis se remet en file ou rend la session au pool. Complexité : un tour. */
+            @Override
+            public void run() {
+                long debut = System.nanoTime();
+                boolean suite;
+                try {
+                    suite = partie.tour();
+                } catch (IOException | RuntimeException e) {
+                    CompletableFuture<ResultatPartie> f = fin;
+                    fin = null;
+                    f.completeExceptionally(e);
+                    libres.add(this);
+                    return;
+                }
+                latenceTour.depuis(debut);
+                toursJoues.increment();
+                if (suite) {
+                    executeur.execute(this);
+                    return;
+                }
+                partiesJouees.increment();
+                // la fin est signalée avant de rendre la session : close() n'attend
+                // donc pas seulement les parties, mais aussi leurs suites (thenAccept...)
+                CompletableFuture<ResultatPartie> f = fin;
+                fin = null;
+                f.complete(partie.resultat);
+                libres.add(this);
+            }
+        }
+    }
+
+    /**
+     * Commande "hote" : test de charge de HoteParties.
+     *
+     * "java CandyCrush.java hote <parties> <n> [sessions] [threads] [graine]
+     * [toursMax] [budgetMs]" joue 'parties' parties du bot (ou de botBorne si
+     * budgetMs > 0), au plus 'sessions' en même temps (1000 par défaut) sur
+     * 'threads' threads (le nombre de cœurs par défaut), la partie i ayant la
+     * graine graineCoup(graine, i) ; affiche le débit, le score moyen, la latence
+     * d'un tour (p50 / p99 / p999) et la mémoire utilisée.
+     *
+     * @param args arguments de la ligne de commande ("hote" en premier).
+     *
+     * Complexité temporelle : parties * (coût d'une partie) / threads.
+     */
+    public static void lancerHote(String[] args) {
+        if (args.length < 3) {
+            Ecran.afficherln("Usage : hote <parties> <n> [sessions] [threads] [graine] [toursMax] [budgetMs]");
+            return;
+        }
+        int parties = Integer.parseInt(args[1]);
+        int n = Integer.parseInt(args[2]);
+        int sessions = (args.length > 3) ? Integer.parseInt(args[3]) : 1000;
+        int threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long graine = (args.length > 5) ? Long.parseLong(args[5]) : 0;
+        int toursMax = (args.length > 6) ? Integer.parseInt(args[6]) : 200;
+        long budgetMs = (args.length > 7) ? Long.parseLong(args[7]) : 0;
+
+        Joueur joueur = (budgetMs > 0) ? botBorne(budgetMs) : bot();
+        LongAdder score = new LongAdder();
+        long debut = System.nanoTime();
+        HoteParties hote = new HoteParties(n, sessions, threads, toursMax, joueur);
+        try {
+            for (int i = 0; i < parties; i++) {
+                hote.demarrer(graineCoup(graine, i)).thenAccept(resultat -> score.add(resultat.score));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            hote.close();
+        }
+        double s = (System.nanoTime() - debut) / 1e9;
+        Runtime jvm = Runtime.getRuntime();
+        long joues = hote.partiesJouees.sum();
+        Ecran.afficherln(String.format(Locale.ROOT,
+            "%d parties %d x %d (%d sessions, %d threads) en %.2f s : %.1f parties/s, %.0f coups/s, score moyen %.1f",
+            joues, n, n, sessions, threads, s, joues / s, hote.toursJoues.sum() / s,
+            (double) score.sum() / Math.max(1, joues)));
+        Ecran.afficherln(String.format(Locale.ROOT,
+            "tour : p50 %d ns, p99 %d ns, p999 %d ns ; mémoire utilisée %d Mo",
+            hote.latenceTour.centile(0.50), hote.latenceTour.centile(0.99), hote.latenceTour.centile(0.999),
+            (jvm.totalMemory() - jvm.freeMemory()) >> 20));
+    }
+
+    /**
+     * Plateau géant (10 000 x 10 000 cases et plus) pour éprouver le moteur bien
+     * au-delà des tailles de analyseComplexite, là où un char[][] et les
+     * parcours séquentiels de rechercheMotif / chute ne suffisent plus.
+     *
+     * Stockage :
+     * - une case = un octet (codes de PlateauPlat : 0..4 pour les bonbons, VIDE) ;
+     * - les cases sont rangées par tuiles de TUILE x TUILE (64 x 64) : chaque tuile
+     *   occupe 4 Ko contigus, et les tuiles d'une même bande de 64 lignes forment un
+     *   ByteBuffer, en mémoire ou projeté depuis un fichier (FileChannel.map) ;
+     *   la taille de chaque projection reste ainsi bien en dessous de 2 Go ;
+     * - le masque des cases à supprimer (1 bit par case, un long[n] par bande de
+     *   64 colonnes) reste dans le tas Java, même pour un plateau projeté : n² / 8
+     *   octets (12,5 Mo pour 10 000 x 10 000, 1,25 Go pour 100 000 x 100 000).
+     *   Un plateau dont le masque (ou, en mémoire, les cases) ne tient pas dans
+     *   la mémoire maximale de Java est refusé à la construction.
+     *
+     * Cascade (supprimer -> chute -> remplissage), en parallèle sur le ForkJoinPool
+     * commun :
+     * - motifs horizontaux : une tâche par ligne, qui parcourt la ligne entière ;
+     *   motifs verticaux : une tâche par bande de 64 colonnes, qui parcourt les
+     *   colonnes entières. Une série qui traverse une frontière de tuile est donc
+     *   vue d'un seul tenant, comme dans rechercheMotif. Les deux passes marquent
+     *   un masque de bits (un mot de 64 bits = 64 colonnes d'une ligne) : les
+     *   lignes, puis les bandes de colonnes, écrivent des mots disjoints.
+     *   Seules les zones modifiées depuis la recherche précédente sont examinées
+     *   (par colonne, les lignes [hautModifie, basModifie]) : sur 10^8 cases, une
+     *   cascade ne touche souvent que quelques colonnes, et relire tout le
+     *   plateau à chaque étape coûterait bien plus que la cascade elle-même ;
+     * - suppression et chute : une tâche par bande de 64 colonnes (les colonnes
+     *   sont indépendantes), limitées aux colonnes qui ont perdu des bonbons ;
+     * - remplissage : même règle que remplissage (bonbonAutorise), en deux temps
+     *   pour que deux tâches ne remplissent jamais des colonnes voisines en même
+     *   temps : les bandes paires, puis les bandes impaires. Une case ne regarde
+     *   que 2 colonnes de part et d'autre, donc au plus la bande voisine, qui est
+     *   soit terminée, soit pas encore commencée : aucune série n'est créée.
+     *   Chaque bande tire ses bonbons avec son propre générateur (graine dérivée
+     *   de la graine du plateau, de l'étape et de la bande) : le résultat ne
+     *   dépend pas du nombre de cœurs.
+     */
+    static final class PlateauGeant implements AutoCloseable {
+
+        static final int TUILE = 64;
+        private static final int DECALAGE = 6; // TUILE = 1 << DECALAGE
+
+        final int n;
+        final int bandesColonnes;          // tuiles par ligne = mots du masque par ligne
+        private final ByteBuffer[] bandes; // bande b : lignes [64b, 64b + 64)
+        private final long[][] masque;     // masque[b][l] : cases de la bande de colonnes b à la ligne l
+        private final int[] plusBasse;     // par colonne : plus basse case supprimée, -1 sinon
+        private final int[] vides;         // par colonne : cases vides en haut après la chute
+        private final int[] hautModifie;   // par colonne : zone modifiée depuis la dernière
+        private final int[] basModifie;    // recherche (vide si haut > bas)
+        private final int[] hautBande;     // même zone, réunie par bande de colonnes
+        private final int[] basBande;
+        private final FileChannel canal;   // fichier projeté, ou null
+        private final long graine;
+        private int etape;
+
+        // Temps cumulés par phase, en nanosecondes
+        long nsDetection, nsSuppression, nsChute, nsRemplissage;
+
+        private PlateauGeant(int n, long graine, FileChannel canal) throws IOException {
+            if (n < 3) {
+                throw new IllegalArgumentException("Taille de plateau invalide : " + n);
+            }
+            this.n = n;
+            this.graine = graine;
+            this.canal = canal;
+            this.bandesColonnes = (n + TUILE - 1) >>> DECALAGE;
+            long tailleBande = (long) bandesColonnes * TUILE * TUILE;
+            long octetsTas = (long) n * bandesColonnes * Long.BYTES + ((canal == null) ? (long) n * n : 0);
+            if (tailleBande > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Plateau trop grand : bande de " + tailleBande + " octets");
+            }
+            if (octetsTas > Runtime.getRuntime().maxMemory()) {
+                throw new IllegalArgumentException("Plateau trop grand : " + (octetsTas >> 20)
+                    + " Mo de tas nécessaires, " + (Runtime.getRuntime().maxMemory() >> 20) + " Mo disponibles");
+            }
+            this.bandes = new ByteBuffer[bandesColonnes];
+            for (int b = 0; b < bandesColonnes; b++) {
+                bandes[b] = (canal == null)
+                    ? ByteBuffer.allocate((int) tailleBande)
+                    : canal.map(FileChannel.MapMode.READ_WRITE, b * tailleBande, tailleBande);
+            }
+            this.masque = new long[bandesColonnes][n];
+            this.plusBasse = new int[n];
+            this.vides = new int[n];
+            this.hautModifie = new int[n];
+            this.basModifie = new int[n];
+            this.hautBande = new int[bandesColonnes];
+            this.basBande = new int[bandesColonnes];
+            toutModifie();
+        }
+
+        /** Marque tout le plateau comme modifié. Complexité temporelle : O(n). */
+        private void toutModifie() {
+            Arrays.fill(hautModifie, 0);
+            Arrays.fill(basModifie, n - 1);
+        }
+
+        /** Ajoute la case (l, c) à la zone modifiée. Complexité temporelle : O(1). */
+        private void modifie(int l, int c) {
+            hautModifie[c] = Math.min(hautModifie[c], l);
+            basModifie[c] = Math.max(basModifie[c], l);
+        }
+
+        /**
+         * Plateau n x n en mémoire.
+         *
+         * @param graine graine des tirages (construction et remplissages).
+         *
+         * @throws IllegalArgumentException si le plateau ne tient pas dans le tas.
+         *
+         * Complexité temporelle : O(n²) (allocation).
+         */
+        static PlateauGeant enMemoire(int n, long graine) {
+            try {
+                return new PlateauGeant(n, graine, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // impossible sans fichier
+            }
+        }
+
+        /**
+         * Plateau n x n projeté en mémoire depuis 'fichier' (créé ou agrandi au
+         * besoin) : le système pagine les cases, qui peuvent dépasser la mémoire
+         * réservée à Java ; seul le masque (n² / 8 octets) reste dans le tas.
+         * À fermer avec close().
+         *
+         * Complexité temporelle : O(n / 64) projections.
+         */
+        static PlateauGeant projete(Path fichier, int n, long graine) throws IOException {
+            FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                                                 StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new PlateauGeant(n, graine, canal);
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Plateau géant copié depuis un plateau char[n][n] (bonbons et '-' uniquement).
+         *
+         * Complexité temporelle : O(n²).
+         */
+        static PlateauGeant depuis(char[][] jeux, long graine) {
+            PlateauGeant geant = enMemoire(jeux.length, graine);
+            for (int l = 0; l < geant.n; l++) {
+                for (int c = 0; c < geant.n; c++) {
+                    char ch = jeux[l][c];
+                    int bit = bitBonbon(ch);
+                    if (bit == 0 && ch != '-') {
+                        throw new IllegalArgumentException("Caractère non géré : " + ch);
+                    }
+                    geant.poser(l, c, (bit == 0) ? PlateauPlat.VIDE : (byte) Integer.numberOfTrailingZeros(bit));
+                }
+            }
+            return geant;
+        }
+
+        /**
+         * Plateau géant chargé depuis un instantané (voir Instantane) : les cases
+         * sont lues directement dans la projection du fichier, une tâche par bande
+         * de colonnes, sans passer par un char[][].
+         *
+         * Complexité temporelle : O(n²), divisé par le nombre de cœurs.
+         */
+        static PlateauGeant depuis(Instantane instantane) {
+            PlateauGeant geant = enMemoire(instantane.n, instantane.graine);
+            IntStream.range(0, geant.bandesColonnes).parallel().forEach(b -> {
+                int fin = Math.min(geant.n, (b + 1) * TUILE);
+                for (int l = 0; l < geant.n; l++) {
+                    for (int c = b * TUILE; c < fin; c++) {
+                        geant.poser(l, c, (byte) instantane.lire(l, c));
+                    }
+                }
+            });
+            return geant;
+        }
+
+        /**
+         * Enregistre le plateau dans 'fichier' (instantané, voir Instantane), par
+         * une projection en écriture.
+         *
+         * @param coups nombre de coups joués, gardé dans l'en-tête.
+         *
+         * Complexité temporelle : O(n²).
+         */
+        void enregistrer(Path fichier, int coups) throws IOException {
+            long taille = Instantane.taille(n);
+            if (taille > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Plateau trop grand pour une projection : " + taille + " octets");
+            }
+            try (FileChannel sortie = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                       StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer dest = sortie.map(FileChannel.MapMode.READ_WRITE, 0, taille);
+                Instantane.encoder(dest, n, graine, coups, this::lire);
+                dest.force();
+            }
+        }
+
+        /**
+         * Copie le plateau dans un char[n][n] (pour l'afficher ou le comparer).
+         *
+         * Complexité temporelle : O(n²).
+         */
+        char[][] versTableau() {
+            char[][] jeux = new char[n][n];
+            for (int l = 0; l < n; l++) {
+                for (int c = 0; c < n; c++) {
+                    byte code = lire(l, c);
+                    jeux[l][c] = (code == PlateauPlat.VIDE) ? '-' : PlateauBits.BONBONS[code];
+                }
+            }
+            return jeux;
+        }
+
+        /** Position de la case (l, c) dans sa bande. Complexité temporelle : O(1). */
+        private static int position(int l, int c) {
+            return ((c >>> DECALAGE) << (2 * DECALAGE)) | ((l & (TUILE - 1)) << DECALAGE) | (c & (TUILE - 1));
+        }
+
+        /** Code de la case (l, c). Complexité temporelle : O(1). */
+        byte lire(int l, int c) {
+            return bandes[l >>> DECALAGE].get(position(l, c));
+        }
+
+        /** Écrit le code de la case (l, c). Complexité temporelle : O(1). */
+        void poser(int l, int c, byte code) {
+            bandes[l >>> DECALAGE].put(position(l, c), code);
+        }
+
+        /**
+         * Construit un plateau sans motif (même règle que construireJeux) : toutes
+         * les cases sont vidées puis remplies par remplissage.
+         *
+         * Complexité temporelle : O(n²), divisé par le nombre de cœurs.
+         */
+        void construire() {
+            IntStream.range(0, bandesColonnes).parallel().forEach(b -> {
+                int fin = Math.min(n, (b + 1) * TUILE);
+                for (int c = b * TUILE; c < fin; c++) {
+                    for (int l = 0; l < n; l++) {
+                        poser(l, c, PlateauPlat.VIDE);
+                    }
+                    vides[c] = n;
+                }
+            });
+            remplissage();
+            Arrays.fill(hautModifie, n); // plateau stable : rien à examiner
+            Arrays.fill(basModifie, -1);
+        }
+
+        /**
+         * Échange les cases (l1, c1) et (l2, c2).
+         *
+         * Complexité temporelle : O(1).
+         */
+        void permuter(int l1, int c1, int l2, int c2) {
+            byte temporaire = lire(l1, c1);
+            poser(l1, c1, lire(l2, c2));
+            poser(l2, c2, temporaire);
+            modifie(l1, c1);
+            modifie(l2, c2);
+        }
+
+        /**
+         * Enchaîne suppression, chute et remplissage jusqu'à ce qu'aucun bonbon ne
+         * soit plus supprimé.
+         *
+         * @return le nombre total de bonbons supprimés.
+         *
+         * Complexité temporelle : O(n²) par étape de cascade, divisé par le nombre
+         * de cœurs.
+         */
+        long cascade() {
+            long total = 0;
+            while (true) {
+                long suppr = supprimerMotifs();
+                if (suppr == 0) {
+                    return total;
+                }
+                total += suppr;
+                chute();
+                remplissage();
+            }
+        }
+
+        /**
+         * Marque les séries d'au moins 3 bonbons identiques qui passent par une case
+         * modifiée (lignes de la zone modifiée en parallèle, puis bandes de colonnes
+         * en parallèle) et les remplace par VIDE.
+         *
+         * @return le nombre de bonbons supprimés.
+         *
+         * Complexité temporelle : O(taille de la zone modifiée, par tuiles), divisé
+         * par le nombre de cœurs ; O(n²) au pire.
+         */
+        long supprimerMotifs() {
+            long debut = System.nanoTime();
+            Arrays.fill(hautBande, n);
+            Arrays.fill(basBande, -1);
+            int lMin = n, lMax = -1;
+            for (int c = 0; c < n; c++) {
+                int b = c >>> DECALAGE;
+                hautBande[b] = Math.min(hautBande[b], hautModifie[c]);
+                basBande[b] = Math.max(basBande[b], basModifie[c]);
+                lMin = Math.min(lMin, hautModifie[c]);
+                lMax = Math.max(lMax, basModifie[c]);
+            }
+            if (lMin <= lMax) {
+                IntStream.rangeClosed(lMin, lMax).parallel().forEach(this::marquerLigne);
+                IntStream.range(0, bandesColonnes).parallel().forEach(this::marquerBandeVerticale);
+            }
+            Arrays.fill(hautModifie, n);
+            Arrays.fill(basModifie, -1);
+            long milieu = System.nanoTime();
+            nsDetection += milieu - debut;
+
+            long suppr = IntStream.range(0, bandesColonnes).parallel().mapToLong(this::appliquerBande).sum();
+            nsSuppression += System.nanoTime() - milieu;
+            return suppr;
+        }
+
+        /**
+         * Marque les séries horizontales de la ligne l (mot l de chaque bande du
+         * masque) qui passent par les bandes de colonnes modifiées à cette ligne :
+         * chaque bande est examinée avec 2 cases de marge, élargie jusqu'aux bouts
+         * des séries qui la touchent.
+         *
+         * Complexité temporelle : O(n / 64 + 64 x bandes modifiées à la ligne l).
+         */
+        private void marquerLigne(int l) {
+            int suivante = 0; // première colonne pas encore examinée
+            for (int b = 0; b < bandesColonnes; b++) {
+                if (l < hautBande[b] || l > basBande[b]) {
+                    continue;
+                }
+                int gauche = Math.max(suivante, (b << DECALAGE) - 2);
+                int droite = Math.min(n - 1, ((b + 1) << DECALAGE) + 1);
+                if (gauche > droite) {
+                    continue;
+                }
+                while (gauche > 0 && lire(l, gauche - 1) == lire(l, gauche)) {
+                    gauche--;
+                }
+                while (droite < n - 1 && lire(l, droite + 1) == lire(l, droite)) {
+                    droite++;
+                }
+                int debut = gauche;
+                byte bonbon = lire(l, gauche);
+                for (int c = gauche + 1; c <= droite + 1; c++) {
+                    byte code = (c <= droite) ? lire(l, c) : -1;
+                    if (code != bonbon) {
+                        if (c - debut >= 3 && bonbon != PlateauPlat.VIDE) {
+                            for (int k = debut; k < c; k++) {
+                                masque[k >>> DECALAGE][l] |= 1L << k;
+                            }
+                        }
+                        debut = c;
+                        bonbon = code;
+                    }
+                }
+                suivante = droite + 1;
+            }
+        }
+
+        /**
+         * Marque les séries verticales qui passent par la zone modifiée des colonnes
+         * de la bande b (mots des lignes concernées dans masque[b]). La zone est
+         * élargie de 2 cases, puis jusqu'aux bouts des séries qui la touchent.
+         *
+         * Complexité temporelle : O(64 x hauteur des zones modifiées).
+         */
+        private void marquerBandeVerticale(int b) {
+            long[] mots = masque[b];
+            int fin = Math.min(n, (b + 1) * TUILE);
+            for (int c = b * TUILE; c < fin; c++) {
+                if (hautModifie[c] > basModifie[c]) {
+                    continue;
+                }
+                int haut = Math.max(0, hautModifie[c] - 2);
+                int bas = Math.min(n - 1, basModifie[c] + 2);
+                while (haut > 0 && lire(haut - 1, c) == lire(haut, c)) {
+                    haut--;
+                }
+                while (bas < n - 1 && lire(bas + 1, c) == lire(bas, c)) {
+                    bas++;
+                }
+                int debut = haut;
+                byte bonbon = lire(haut, c);
+                for (int l = haut + 1; l <= bas + 1; l++) {
+                    byte code = (l <= bas) ? lire(l, c) : -1;
+                    if (code != bonbon) {
+                        if (l - debut >= 3 && bonbon != PlateauPlat.VIDE) {
+                            for (int k = debut; k < l; k++) {
+                                mots[k] |= 1L << c;
+                            }
+                        }
+                        debut = l;
+                        bonbon = code;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Vide les cases marquées des colonnes de la bande b, efface leurs marques et
+         * note la plus basse case vidée de chaque colonne.
+         *
+         * @return le nombre de cases vidées.
+         *
+         * Complexité temporelle : O(n + cases vidées).
+         */
+        private long appliquerBande(int b) {
+            int fin = Math.min(n, (b + 1) * TUILE);
+            Arrays.fill(plusBasse, b * TUILE, fin, -1);
+            long[] mots = masque[b];
+            long suppr = 0;
+            for (int l = 0; l < n; l++) {
+                long bits = mots[l];
+                if (bits == 0) {
+                    continue;
+                }
+                mots[l] = 0;
+                suppr += Long.bitCount(bits);
+                while (bits != 0) {
+                    int c = (b << DECALAGE) + Long.numberOfTrailingZeros(bits);
+                    poser(l, c, PlateauPlat.VIDE);
+                    plusBasse[c] = l;
+                    bits &= bits - 1;
+                }
+            }
+            return suppr;
+        }
+
+        /**
+         * Même règle que chute, une tâche par bande de colonnes, limitée aux
+         * colonnes qui ont perdu des bonbons et aux lignes au-dessus de leur plus
+         * basse case vidée.
+         *
+         * Complexité temporelle : O(taille des zones touchées), divisé par le
+         * nombre de cœurs.
+         */
+        void chute() {
+            long debut = System.nanoTime();
+            IntStream.range(0, bandesColonnes).parallel().forEach(b -> {
+                int fin = Math.min(n, (b + 1) * TUILE);
+                for (int c = b * TUILE; c < fin; c++) {
+                    vides[c] = 0;
+                    if (plusBasse[c] < 0) {
+                        continue;
+                    }
+                    int position = plusBasse[c];
+                    for (int l = plusBasse[c]; l >= 0; l--) {
+                        byte bonbon = lire(l, c);
+                        if (bonbon != PlateauPlat.VIDE) {
+                            poser(position--, c, bonbon);
+                        }
+                    }
+                    for (int l = position; l >= 0; l--) {
+                        poser(l, c, PlateauPlat.VIDE);
+                    }
+                    vides[c] = position + 1;
+                    hautModifie[c] = 0;
+                    basModifie[c] = plusBasse[c];
+                }
+            });
+            nsChute += System.nanoTime() - debut;
+        }
+
+        /**
+         * Remplit les cases vides du haut de chaque colonne (vides[c]) : bandes
+         * paires en parallèle, puis bandes impaires. Dans une bande, les cases sont
+         * remplies ligne par ligne, de gauche à droite, comme dans remplissage.
+         *
+         * Complexité temporelle : O(cases vides), divisé par le nombre de cœurs.
+         */
+        void remplissage() {
+            long debut = System.nanoTime();
+            long graineEtape = graineCoup(graine, etape++);
+            for (int parite = 0; parite < 2; parite++) {
+                int premiere = parite;
+                IntStream.range(0, (bandesColonnes - premiere + 1) / 2).parallel().forEach(t -> {
+                    int b = premiere + 2 * t;
+                    RandomGenerator alea = new GenerateurSplitMix(graineCoup(graineEtape, b));
+                    int fin = Math.min(n, (b + 1) * TUILE);
+                    int bas = 0;
+                    for (int c = b * TUILE; c < fin; c++) {
+                        bas = Math.max(bas, vides[c]);
+                    }
+                    for (int l = 0; l < bas; l++) {
+                        for (int c = b * TUILE; c < fin; c++) {
+                            if (l < vides[c]) {
+                                poser(l, c, (byte) tirerDansEnsemble(TOUS_BONBONS & ~interdits(l, c), alea));
+                            }
+                        }
+                    }
+                });
+            }
+            Arrays.fill(vides, 0);
+            nsRemplissage += System.nanoTime() - debut;
+        }
+
+        /**
+         * Bonbons interdits en (l, c) : même règle que bonbonAutorise, sur les codes.
+         *
+         * Complexité temporelle : O(1).
+         */
+        private int interdits(int l, int c) {
+            int g1 = (c >= 1) ? lire(l, c - 1) : -1, g2 = (c >= 2) ? lire(l, c - 2) : -2;
+            int d1 = (c + 1 < n) ? lire(l, c + 1) : -3, d2 = (c + 2 < n) ? lire(l, c + 2) : -4;
+            int h1 = (l >= 1) ? lire(l - 1, c) : -5, h2 = (l >= 2) ? lire(l - 2, c) : -6;
+            int b1 = (l + 1 < n) ? lire(l + 1, c) : -7, b2 = (l + 2 < n) ? lire(l + 2, c) : -8;
+
+            int interdits = 0;
+            if (g1 == g2) interdits |= bitCode(g1);
+            if (d1 == d2) interdits |= bitCode(d1);
+            if (g1 == d1) interdits |= bitCode(g1);
+            if (h1 == h2) interdits |= bitCode(h1);
+            if (b1 == b2) interdits |= bitCode(b1);
+            if (h1 == b1) interdits |= bitCode(h1);
+            return interdits;
+        }
+
+        /** Bit d'un code de bonbon (0..4), 0 pour VIDE. Complexité : O(1). */
+        private static int bitCode(int code) {
+            return (code >= 0 && code < PlateauBits.BONBONS.length) ? 1 << code : 0;
+        }
+
+        /** Écrit les modifications sur disque (plateau projeté). Complexité : O(n²) au pire. */
+        void forcer() {
+            if (canal != null) {
+                for (ByteBuffer bande : bandes) {
+                    ((MappedByteBuffer) bande).force();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (canal != null) {
+                forcer();
+                canal.close();
+            }
+        }
+    }
+
+    /**
+     * Commande "geant" : éprouve le moteur sur un plateau géant (PlateauGeant).
+     *
+     * "java CandyCrush.java geant <n> [graine] [coups] [fichier]" : construit un
+     * plateau n x n sans motif, puis joue 'coups' permutations au hasard suivies
+     * de leur cascade, et affiche le temps de chaque phase. Avec un fichier, le
+     * plateau y est projeté en mémoire.
+     *
+     * @param args arguments de la ligne de commande ("geant" en premier).
+     *
+     * Complexité temporelle : O(n²) par étape de cascade, divisé par le nombre de
+     * cœurs.
+     */
+    public static void lancerPlateauGeant(String[] args) {
+        int n = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000;
+        long graine = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+        int coups = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+        Ecran.afficherln("Plateau géant " + n + " x " + n + " ("
+            + ((args.length > 4) ? "projeté depuis " + args[4] : "en mémoire") + "), "
+            + ForkJoinPool.commonPool().getParallelism() + " threads de calcul");
+
+        try (PlateauGeant geant = (args.length > 4)
+                ? PlateauGeant.projete(Path.of(args[4]), n, graine)
+                : PlateauGeant.enMemoire(n, graine)) {
+            long debut = System.nanoTime();
+            geant.construire();
+            double msConstruction = (System.nanoTime() - debut) / 1e6;
+            Ecran.afficherln(String.format(Locale.ROOT, "construction : %.0f ms (%.1f Mcases/s)",
+                                           msConstruction, (double) n * n / msConstruction / 1e3));
+
+            geant.nsDetection = geant.nsSuppression = geant.nsChute = geant.nsRemplissage = 0;
+            SplittableRandom alea = new SplittableRandom(graine);
+            debut = System.nanoTime();
+            long total = 0;
+            for (int k = 0; k < coups; k++) {
+                int l = alea.nextInt(n), c = alea.nextInt(n - 1);
+                geant.permuter(l, c, l, c + 1);
+                total += geant.cascade();
+            }
+            Ecran.afficherln(String.format(Locale.ROOT,
+                "%d coups au hasard : %d bonbons supprimés en %.0f ms (détection %.0f, suppression %.0f, chute %.0f, remplissage %.0f)",
+                coups, total, (System.nanoTime() - debut) / 1e6, geant.nsDetection / 1e6,
+                geant.nsSuppression / 1e6, geant.nsChute / 1e6, geant.nsRemplissage / 1e6));
+        } catch (IOException e) {
+            Ecran.afficherln("Impossible de projeter le plateau : " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            Ecran.afficherln(e.getMessage());
+        }
+    }
+
+    /**
+     * Instantané d'un plateau : format binaire compact pour sauvegarder un plateau
+     * et le recharger tel quel (parties reproductibles, corpus de plateaux pour le
+     * banc d'essai).
+     *
+     * Format (entiers gros-boutistes, comme ByteBuffer par défaut) :
+     * - en-tête de ENTETE = 20 octets : MAGIQUE ("CCS1"), n, graine (long), coups
+     *   (nombre de coups déjà joués sur ce plateau) ;
+     * - puis les n² cases, 3 bits par case (codes de PlateauPlat : 0..4 pour les
+     *   bonbons, VIDE pour '-'), rangées ligne par ligne par paquets de
+     *   PAR_MOT = 21 cases dans un long (63 bits utiles) : une case ne chevauche
+     *   jamais deux mots, et la case k se lit en un décalage et un masque.
+     * Un plateau 9 x 9 tient en 52 octets (contre 81 caractères), un plateau
+     * 10 000 x 10 000 en 38 Mo.
+     *
+     * Un corpus est une simple suite d'instantanés dans un même fichier. La
+     * lecture projette le fichier en mémoire (FileChannel.map) et ne lit que les
+     * en-têtes : chaque instantané est une vue sur la projection, ses cases ne
+     * sont décodées qu'à la demande (lire, plateau).
+     */
+    static final class Instantane {
+
+        static final int MAGIQUE = 0x43435331; // "CCS1"
+        static final int ENTETE = 20;
+        static final int PAR_MOT = 21;
+        private static final int BITS = 3;
+        private static final long UNITES = 0x1249249249249249L; // bit de poids faible de chaque case
+        private static final char[] CARACTERE = new char[8];    // code -> caractère
+        static {
+            System.arraycopy(PlateauBits.BONBONS, 0, CARACTERE, 0, PlateauBits.BONBONS.length);
+            CARACTERE[PlateauPlat.VIDE] = '-';
+        }
+
+        final int n;
+        final long graine;
+        final int coups;
+        private final ByteBuffer cases; // mots de PAR_MOT cases
+
+        private Instantane(int n, long graine, int coups, ByteBuffer cases) {
+            this.n = n;
+            this.graine = graine;
+            this.coups = coups;
+            this.cases = cases;
+        }
+
+        /**
+         * Taille en octets de l'instantané d'un plateau n x n.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static long taille(int n) {
+            return ENTETE + 8L * (((long) n * n + PAR_MOT - 1) / PAR_MOT);
+        }
+
+        /**
+         * Code (0..7) d'un caractère du plateau.
+         *
+         * @throws IllegalArgumentException si le caractère n'est ni un bonbon ni '-'.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static int code(char ch) {
+            int code = (ch < 128) ? PlateauPlat.CODE_FIXE[ch] : -1;
+            if (code < 0) {
+                throw new IllegalArgumentException("Caractère non enregistrable : " + ch);
+            }
+            return code;
+        }
+
+        /**
+         * Écrit l'instantané d'un plateau n x n à la position courante de 'dest'
+         * (qui avance de taille(n) octets).
+         *
+         * @param codes code (0..7) de la case (l, c).
+         *
+         * Complexité temporelle : O(n²).
+         */
+        static void encoder(ByteBuffer dest, int n, long graine, int coups,
+                            IntBinaryOperator codes) {
+            dest.putInt(MAGIQUE).putInt(n).putLong(graine).putInt(coups);
+            long mot = 0;
+            int dansMot = 0;
+            for (int l = 0; l < n; l++) {
+                for (int c = 0; c < n; c++) {
+                    mot |= (long) codes.applyAsInt(l, c) << (BITS * dansMot);
+                    if (++dansMot == PAR_MOT) {
+                        dest.putLong(mot);
+                        mot = 0;
+                        dansMot = 0;
+                    }
+                }
+            }
+            if (dansMot > 0) {
+                dest.putLong(mot);
+            }
+        }
+
+        /**
+         * Enregistre une suite de plateaux (un seul pour un simple instantané) dans
+         * 'fichier', écrasé s'il existe, par une projection en écriture.
+         *
+         * @param graines graine associée à chaque plateau.
+         * @param coups nombre de coups déjà joués sur chaque plateau.
+         *
+         * Complexité temporelle : O(somme des n²).
+         */
+        static void ecrire(Path fichier, List<char[][]> plateaux, long[] graines, int[] coups) throws IOException {
+            long total = 0;
+            for (char[][] plateau : plateaux) {
+                total += taille(plateau.length);
+            }
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Corpus trop grand pour une projection : " + total + " octets");
+            }
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                      StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer dest = canal.map(FileChannel.MapMode.READ_WRITE, 0, total);
+                for (int k = 0; k < plateaux.size(); k++) {
+                    char[][] plateau = plateaux.get(k);
+                    encoder(dest, plateau.length, graines[k], coups[k], (l, c) -> code(plateau[l][c]));
+                }
+                dest.force();
+            }
+        }
+
+        /**
+         * Projette 'fichier' en lecture et renvoie ses instantanés, dans l'ordre
+         * (voir decouper). Seuls les en-têtes sont lus.
+         *
+         * @throws IOException si le fichier est illisible ou n'est pas un corpus.
+         *
+         * Complexité temporelle : O(nombre d'instantanés).
+         */
+        static List<Instantane> charger(Path fichier) throws IOException {
+            ByteBuffer source;
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                if (canal.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Fichier trop grand pour une projection : " + canal.size() + " octets");
+                }
+                source = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()); // reste valide après close
+            }
+            return decouper(source, fichier.toString());
+        }
+
+        /**
+         * Instantanés rangés bout à bout dans 'source' (de 0 à sa limite), sous
+         * forme de vues sur 'source'.
+         *
+         * @param origine nom de la source, pour les messages d'erreur.
+         *
+         * Complexité temporelle : O(nombre d'instantanés).
+         */
+        static List<Instantane> decouper(ByteBuffer source, String origine) throws IOException {
+            List<Instantane> instantanes = new ArrayList<>();
+            int position = 0;
+            while (position < source.limit()) {
+                if (source.limit() - position < ENTETE || source.getInt(position) != MAGIQUE) {
+                    throw new IOException("Instantané invalide à l'octet " + position + " de " + origine);
+                }
+                int n = source.getInt(position + 4);
+                long fin = (n >= 3) ? position + taille(n) : Long.MAX_VALUE;
+                if (fin > source.limit()) {
+                    throw new IOException("Instantané tronqué à l'octet " + position + " de " + origine);
+                }
+                instantanes.add(new Instantane(n, source.getLong(position + 8), source.getInt(position + 16),
+                                               source.slice(position + ENTETE, (int) (fin - position - ENTETE))));
+                position = (int) fin;
+            }
+            return instantanes;
+        }
+
+        /**
+         * Code (0..7) de la case (l, c), lu directement dans la projection.
+         *
+         * Complexité temporelle : O(1).
+         */
+        int lire(int l, int c) {
+            long k = (long) l * n + c;
+            return (int) (cases.getLong((int) (k / PAR_MOT) * 8) >>> (BITS * (k % PAR_MOT))) & 7;
+        }
+
+        /**
+         * Décode l'instantané en plateau char[n][n], mot par mot (les codes
+         * inconnus sont refusés pour tout le mot en une seule opération).
+         *
+         * @throws IllegalArgumentException si une case porte un code inconnu (6 ou 7).
+         *
+         * Complexité temporelle : O(n²).
+         */
+        char[][] plateau() {
+            char[][] plateau = new char[n][n];
+            long mot = 0;
+            int restantes = 0, position = 0;
+            for (int l = 0; l < n; l++) {
+                char[] ligne = plateau[l];
+                for (int c = 0; c < n; c++) {
+                    if (restantes == 0) {
+                        mot = cases.getLong(position);
+                        position += 8;
+                        restantes = PAR_MOT;
+                        if (((mot >>> 1) & (mot >>> 2) & UNITES) != 0) { // codes 6 et 7 : 11x
+                            throw new IllegalArgumentException("Code de case inconnu à l'octet " + (position - 8));
+                        }
+                    }
+                    ligne[c] = CARACTERE[(int) mot & 7];
+                    mot >>>= BITS;
+                    restantes--;
+                }
+            }
+            return plateau;
+        }
+    }
+
+    /**
+     * Commande "corpus" : enregistre un corpus de plateaux pour jeux et le banc
+     * d'essai.
+     *
+     * "java CandyCrush.java corpus <fichier> <nombre> <n> [graine]" : enregistre
+     * 'nombre' plateaux n x n tirés par construireJeux, le k-ième avec la graine
+     * graineCoup(graine, k), gardée dans son en-tête (coups = 0).
+     *
+     * @param args arguments de la ligne de commande ("corpus" en premier).
+     *
+     * Complexité temporelle : O(nombre x n²).
+     */
+    public static void lancerCorpus(String[] args) {
+        if (args.length < 4) {
+            Ecran.afficherln("Usage : corpus <fichier> <nombre> <n> [graine]");
+            return;
+        }
+        int nombre = Integer.parseInt(args[2]);
+        int n = Integer.parseInt(args[3]);
+        long graine = (args.length > 4) ? Long.parseLong(args[4]) : 0;
+
+        List<char[][]> plateaux = new ArrayList<>(nombre);
+        long[] graines = new long[nombre];
+        for (int k = 0; k < nombre; k++) {
+            graines[k] = graineCoup(graine, k);
+            plateaux.add(construireJeux(n, new SplittableRandom(graines[k])));
+        }
+        try {
+            Instantane.ecrire(Path.of(args[1]), plateaux, graines, new int[nombre]);
+            Ecran.afficherln(nombre + " plateaux " + n + " x " + n + " enregistrés dans " + args[1]
+                             + " (" + nombre * Instantane.taille(n) + " octets)");
+        } catch (IOException e) {
+            Ecran.afficherln("Impossible d'écrire " + args[1] + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Journal de partie : enregistre, au fil de jouerPartie, chaque coup et chaque
+     * étape de cascade (cases vidées, colonnes tombées, bonbons tirés au
+     * remplissage), pour rejouer la partie à l'identique sans la recalculer ni
+     * l'afficher (voir LecteurJournal).
+     *
+     * Format (flux, écrit une seule fois du début à la fin) :
+     * - MAGIQUE ("CCR1"), puis l'instantané du plateau initial (voir Instantane),
+     *   dont l'en-tête garde la graine de la partie ;
+     * - puis des événements : un octet de type suivi d'entiers positifs codés en
+     *   longueur variable (7 bits par octet, le bit de poids fort annonçant la
+     *   suite) :
+     *   COUP        x1 y1 x2 y2
+     *   SUPPRESSION nombre de colonnes, puis par colonne : colonne, nombre de
+     *               cases vides, lignes de ces cases
+     *   CHUTE       nombre de colonnes, puis par colonne : colonne, nombre de
+     *               bonbons qui tombent
+     *   REMPLISSAGE nombre de cases, puis un octet par bonbon tiré (code de
+     *               PlateauPlat), dans l'ordre de remplissage
+     *   TOUR        bonbons supprimés pendant le tour, étapes de cascade
+     *   REMELANGE   un octet par case (code de PlateauPlat), ligne par ligne :
+     *               plateau bloqué remplacé par remelanger
+     *   FIN
+     *   Une étape sans suppression n'écrit rien.
+     *
+     * Le journal écrit dans son propre tampon de 64 Ko et ne le vide dans le flux
+     * que lorsqu'il est plein : le coût par étape est celui d'un parcours des
+     * seules colonnes touchées, sans allocation, et un journal de plusieurs Go
+     * ne passe jamais en mémoire. Seuls les bonbons et '-' sont enregistrables.
+     */
+    static final class JournalPartie implements AutoCloseable {
+
+        static final int MAGIQUE = 0x43435231; // "CCR1"
+        static final byte FIN = 0, COUP = 1, SUPPRESSION = 2, CHUTE = 3, REMPLISSAGE = 4, TOUR = 5,
+                          REMELANGE = 6;
+
+        private final OutputStream sortie;
+        private final long graine;
+        private byte[] tampon = new byte[1 << 16];
+        private int taille;
+        // Colonnes touchées par la dernière suppression, et leurs cases vides
+        private int[] colonnes, vides, lignes;
+        private int nbColonnes;
+        private boolean ferme;
+
+        long evenements; // événements écrits
+        long octets;     // octets écrits dans le flux
+
+        /**
+         * @param sortie flux de destination, fermé par close().
+         * @param graine graine de la partie, gardée dans l'en-tête.
+         */
+        JournalPartie(OutputStream sortie, long graine) {
+            this.sortie = sortie;
+            this.graine = graine;
+        }
+
+        /**
+         * Journal écrit dans 'fichier' (créé, ou écrasé s'il existe).
+         *
+         * Complexité temporelle : O(1).
+         */
+        static JournalPartie ouvrir(Path fichier, long graine) throws IOException {
+            return new JournalPartie(Files.newOutputStream(fichier), graine);
+        }
+
+        /**
+         * Écrit l'en-tête et le plateau initial. À appeler une fois, avant tout
+         * autre événement (jouerPartie s'en charge).
+         *
+         * Complexité temporelle : O(n²).
+         */
+        void debut(char[][] plateau) throws IOException {
+            int n = plateau.length;
+            colonnes = new int[n];
+            vides = new int[n];
+            lignes = new int[n];
+            tampon = new byte[Math.max(tampon.length, 5 * (2 * n + 3))]; // une colonne tient toujours
+            ByteBuffer instantane = ByteBuffer.allocate((int) Instantane.taille(n));
+            Instantane.encoder(instantane, n, graine, 0, (l, c) -> Instantane.code(plateau[l][c]));
+            place(4);
+            entier32(MAGIQUE);
+            vider();
+            sortie.write(instantane.array());
+            octets += instantane.capacity();
+        }
+
+        /** Coup joué. Complexité temporelle : O(1). */
+        void coup(int[] coup) throws IOException {
+            place(1 + 4 * 5);
+            type(COUP);
+            for (int k = 0; k < 4; k++) {
+                entier(coup[k]);
+            }
+        }
+
+        /**
+         * Cases vides après supprimerMotifs(plateau, plusBasse) : seules les lignes
+         * 0..plusBasse[c] des colonnes touchées sont parcourues.
+         *
+         * Complexité temporelle : O(taille des zones touchées).
+         */
+        void suppression(char[][] plateau, int[] plusBasse) throws IOException {
+            nbColonnes = 0;
+            for (int c = 0; c < plusBasse.length; c++) {
+                if (plusBasse[c] >= 0) {
+                    colonnes[nbColonnes++] = c;
+                }
+            }
+            if (nbColonnes == 0) {
+                return;
+            }
+            place(1 + 5);
+            type(SUPPRESSION);
+            entier(nbColonnes);
+            for (int k = 0; k < nbColonnes; k++) {
+                int c = colonnes[k], nb = 0;
+                for (int l = 0; l <= plusBasse[c]; l++) {
+                    if (plateau[l][c] == '-') {
+                        lignes[nb++] = l;
+                    }
+                }
+                vides[k] = nb;
+                place(5 * (nb + 2));
+                entier(c);
+                entier(nb);
+                for (int i = 0; i < nb; i++) {
+                    entier(lignes[i]);
+                }
+            }
+        }
+
+        /**
+         * Chute des colonnes touchées par la dernière suppression.
+         *
+         * @param plusBasse le même tableau que pour suppression.
+         *
+         * Complexité temporelle : O(colonnes touchées).
+         */
+        void chute(int[] plusBasse) throws IOException {
+            if (nbColonnes == 0) {
+                return;
+            }
+            place(1 + 5);
+            type(CHUTE);
+            entier(nbColonnes);
+            for (int k = 0; k < nbColonnes; k++) {
+                place(10);
+                entier(colonnes[k]);
+                entier(plusBasse[colonnes[k]] + 1 - vides[k]);
+            }
+        }
+
+        /**
+         * Bonbons tirés par remplissage : après la chute, les cases vides de la
+         * colonne colonnes[k] sont ses vides[k] premières lignes ; elles sont
+         * relues ligne par ligne, de gauche à droite, comme remplissage les remplit.
+         *
+         * Complexité temporelle : O(colonnes touchées x plus grande hauteur vide).
+         */
+        void remplissage(char[][] plateau) throws IOException {
+            if (nbColonnes == 0) {
+                return;
+            }
+            int total = 0, hauteur = 0;
+            for (int k = 0; k < nbColonnes; k++) {
+                total += vides[k];
+                hauteur = Math.max(hauteur, vides[k]);
+            }
+            place(1 + 5);
+            type(REMPLISSAGE);
+            entier(total);
+            for (int l = 0; l < hauteur; l++) {
+                for (int k = 0; k < nbColonnes; k++) {
+                    if (l < vides[k]) {
+                        if (taille == tampon.length) {
+                            vider();
+                        }
+                        tampon[taille++] = (byte) Instantane.code(plateau[l][colonnes[k]]);
+                    }
+                }
+            }
+            nbColonnes = 0;
+        }
+
+        /** Plateau entier après remelanger. Complexité temporelle : O(n²). */
+        void remelange(char[][] plateau) throws IOException {
+            place(1);
+            type(REMELANGE);
+            for (char[] ligne : plateau) {
+                for (char ch : ligne) {
+                    if (taille == tampon.length) {
+                        vider();
+                    }
+                    tampon[taille++] = (byte) Instantane.code(ch);
+                }
+            }
+        }
+
+        /** Fin de la stabilisation d'un tour. Complexité temporelle : O(1). */
+        void tour(int scoreTour, int cascade) throws IOException {
+            place(1 + 2 * 5);
+            type(TOUR);
+            entier(scoreTour);
+            entier(cascade);
+        }
+
+        /**
+         * Écrit FIN, vide le tampon et ferme le flux (une seule fois).
+         *
+         * Complexité temporelle : O(1).
+         */
+        @Override
+        public void close() throws IOException {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            place(1);
+            type(FIN);
+            vider();
+            sortie.close();
+        }
+
+        /** Vide le tampon s'il reste moins de 'besoin' octets. Complexité : O(1) amorti. */
+        private void place(int besoin) throws IOException {
+            if (taille + besoin > tampon.length) {
+                vider();
+            }
+        }
+
+        private void vider() throws IOException {
+            sortie.write(tampon, 0, taille);
+            octets += taille;
+            taille = 0;
+        }
+
+        private void type(byte type) {
+            tampon[taille++] = type;
+            evenements++;
+        }
+
+        /** Entier positif en longueur variable (1 à 5 octets). Complexité : O(1). */
+        private void entier(int valeur) {
+            while ((valeur & ~0x7F) != 0) {
+                tampon[taille++] = (byte) (valeur | 0x80);
+                valeur >>>= 7;
+            }
+            tampon[taille++] = (byte) valeur;
+        }
+
+        private void entier32(int valeur) {
+            for (int decalage = 24; decalage >= 0; decalage -= 8) {
+                tampon[taille++] = (byte) (valeur >>> decalage);
+            }
+        }
+    }
+
+    /**
+     * Relecture d'un journal de partie (voir JournalPartie) : applique chaque
+     * événement au plateau, sans aléatoire, sans meilleurCoup et sans affichage.
+     * Le plateau obtenu après chaque événement est exactement celui de la partie
+     * enregistrée. Le flux est lu par tampons de 64 Ko : la taille du journal
+     * n'est pas limitée.
+     */
+    static final class LecteurJournal implements AutoCloseable {
+
+        final int n;
+        final long graine;
+        final char[][] plateau;
+        final ResultatPartie resultat = new ResultatPartie(); // même bilan que jouerPartie
+        final int[] dernierCoup = new int[4];
+        long evenements;
+
+        private final InputStream entree;
+        private final byte[] tampon = new byte[1 << 16];
+        private int position, limite;
+        private final int[] colonnes, vides;
+        private int nbColonnes;
+
+        /**
+         * Lit l'en-tête et le plateau initial depuis 'entree' (fermé par close()).
+         *
+         * @throws IOException si le flux n'est pas un journal de partie.
+         */
+        LecteurJournal(InputStream entree) throws IOException {
+            this.entree = entree;
+            if (entier32() != JournalPartie.MAGIQUE) {
+                throw new IOException("Ce flux n'est pas un journal de partie");
+            }
+            byte[] entete = new byte[Instantane.ENTETE];
+            for (int k = 0; k < entete.length; k++) {
+                entete[k] = octet();
+            }
+            int taille = (int) Instantane.taille(ByteBuffer.wrap(entete).getInt(4));
+            ByteBuffer instantane = ByteBuffer.allocate(taille).put(entete);
+            while (instantane.hasRemaining()) {
+                instantane.put(octet());
+            }
+            Instantane initial = Instantane.decouper(instantane.flip(), "journal").get(0);
+            this.n = initial.n;
+            this.graine = initial.graine;
+            this.plateau = initial.plateau();
+            this.colonnes = new int[n];
+            this.vides = new int[n];
+        }
+
+        /** Relecture du journal 'fichier'. Complexité temporelle : O(n²). */
+        static LecteurJournal ouvrir(Path fichier) throws IOException {
+            return new LecteurJournal(Files.newInputStream(fichier));
+        }
+
+        /**
+         * Lit et applique l'événement suivant.
+         *
+         * @return son type (JournalPartie.COUP, ...), JournalPartie.FIN à la fin.
+         *
+         * @throws IOException si l'événement est inconnu ou ne correspond pas au
+         *                     plateau (remplissage d'un autre nombre de cases que
+         *                     celles vidées, chute sans case vide).
+         *
+         * Complexité temporelle : O(taille de l'événement), plus la hauteur des
+         * colonnes touchées pour CHUTE.
+         */
+        byte suivant() throws IOException {
+            byte type = octet();
+            evenements++;
+            switch (type) {
+                case JournalPartie.COUP:
+                    for (int k = 0; k < 4; k++) {
+                        dernierCoup[k] = entier();
+                    }
+                    permutation(dernierCoup[0], dernierCoup[1], dernierCoup[2], dernierCoup[3], plateau);
+                    resultat.tours++;
+                    break;
+                case JournalPartie.SUPPRESSION:
+                    nbColonnes = entier();
+                    for (int k = 0; k < nbColonnes; k++) {
+                        int c = entier();
+                        colonnes[k] = c;
+                        vides[k] = entier();
+                        for (int i = 0; i < vides[k]; i++) {
+                            plateau[entier()][c] = '-';
+                        }
+                    }
+                    break;
+                case JournalPartie.CHUTE:
+                    for (int k = entier(); k > 0; k--) {
+                        chuteColonne(entier(), entier());
+                    }
+                    break;
+                case JournalPartie.REMPLISSAGE:
+                    int cases = entier(); // celles laissées vides par la chute
+                    int hauteur = 0, attendues = 0;
+                    for (int k = 0; k < nbColonnes; k++) {
+                        hauteur = Math.max(hauteur, vides[k]);
+                        attendues += vides[k];
+                    }
+                    if (cases != attendues) {
+                        throw new IOException("Remplissage de " + cases + " cases dans le journal, "
+                                              + attendues + " cases vidées par la suppression");
+                    }
+                    for (int l = 0; l < hauteur; l++) {
+                        for (int k = 0; k < nbColonnes; k++) {
+                            if (l < vides[k]) {
+                                plateau[l][colonnes[k]] = PlateauBits.BONBONS[octet()];
+                            }
+                        }
+                    }
+                    nbColonnes = 0;
+                    break;
+                case JournalPartie.TOUR:
+                    int scoreTour = entier(), cascade = entier();
+                    if (resultat.tours > 0) { // comme jouerPartie : le tour 0 ne compte pas
+                        resultat.score += scoreTour;
+                        resultat.etapesCascade += cascade;
+                        resultat.cascadeMax = Math.max(resultat.cascadeMax, cascade);
+                    }
+                    break;
+                case JournalPartie.REMELANGE:
+                    for (char[] ligne : plateau) {
+                        for (int c = 0; c < n; c++) {
+                            ligne[c] = PlateauBits.BONBONS[octet()];
+                        }
+                    }
+                    resultat.remelanges++;
+                    break;
+                case JournalPartie.FIN:
+                    break;
+                default:
+                    throw new IOException("Événement inconnu dans le journal : " + type);
+            }
+            return type;
+        }
+
+        /**
+         * Rejoue le journal jusqu'à FIN.
+         *
+         * @return le bilan de la partie enregistrée.
+         *
+         * Complexité temporelle : O(taille du journal).
+         */
+        ResultatPartie rejouer() throws IOException {
+            while (suivant() != JournalPartie.FIN) {
+                // chaque événement est appliqué par suivant()
+            }
+            return resultat;
+        }
+
+        /**
+         * Fait tomber les 'tombes' bonbons de la colonne c situés au-dessus de sa
+         * plus basse case vide (même résultat que chute sur cette colonne).
+         *
+         * @throws IOException si la colonne n'existe pas ou n'a aucune case vide
+         *                     (journal corrompu).
+         *
+         * Complexité temporelle : O(hauteur de la zone touchée).
+         */
+        private void chuteColonne(int c, int tombes) throws IOException {
+            if (c < 0 || c >= n) {
+                throw new IOException("Chute de la colonne " + c + " dans le journal d'un plateau " + n + " x " + n);
+            }
+            int l = n - 1;
+            while (l >= 0 && plateau[l][c] != '-') {
+                l--;
+            }
+            if (l < 0) {
+                throw new IOException("Chute dans la colonne " + c + " du journal, qui n'a aucune case vide");
+            }
+            int position = l;
+            for (; l >= 0 && tombes > 0; l--) {
+                if (plateau[l][c] != '-') {
+                    plateau[position--][c] = plateau[l][c];
+                    tombes--;
+                }
+            }
+            for (; position >= 0; position--) {
+                plateau[position][c] = '-';
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            entree.close();
+        }
+
+        private byte octet() throws IOException {
+            if (position == limite) {
+                limite = entree.read(tampon, 0, tampon.length);
+                position = 0;
+                if (limite <= 0) {
+                    limite = 0;
+                    throw new EOFException("Journal tronqué");
+                }
+            }
+            return tampon[position++];
+        }
+
+        private int entier() throws IOException {
+            int valeur = 0;
+            for (int decalage = 0; ; decalage += 7) {
+                byte b = octet();
+                valeur |= (b & 0x7F) << decalage;
+                if (b >= 0) {
+                    return valeur;
+                }
+            }
+        }
+
+        private int entier32() throws IOException {
+            int valeur = 0;
+            for (int k = 0; k < 4; k++) {
+                valeur = (valeur << 8) | (octet() & 0xFF);
+            }
+            return valeur;
+        }
+    }
+
+    /**
+     * Commandes "journal" et "rejouer" (voir JournalPartie et LecteurJournal).
+     *
+     * "java CandyCrush.java journal <fichier> <n> [graine] [toursMax]" : joue une
+     * partie du bot sans affichage sur construireJeux(n), en l'enregistrant dans
+     * 'fichier'.
+     * "java CandyCrush.java rejouer <fichier>" : rejoue le journal sans calcul ni
+     * affichage et montre le bilan, le débit de relecture et le plateau final.
+     *
+     * @param args arguments de la ligne de commande ("journal" ou "rejouer" en premier).
+     *
+     * Complexité temporelle : celle de la partie (journal), ou de la taille du
+     * journal (rejouer).
+     */
+    public static void lancerJournal(String[] args) {
+        if (args.length < (args[0].equals("rejouer") ? 2 : 3)) {
+            Ecran.afficherln("Usage : journal <fichier> <n> [graine] [toursMax] | rejouer <fichier>");
+            return;
+        }
+        try {
+            if (args[0].equals("rejouer")) {
+                long debut = System.nanoTime();
+                try (LecteurJournal lecteur = LecteurJournal.ouvrir(Path.of(args[1]))) {
+                    ResultatPartie resultat = lecteur.rejouer();
+                    double ms = (System.nanoTime() - debut) / 1e6;
+                    afficherJeux(lecteur.plateau);
+                    Ecran.afficherln(String.format(Locale.ROOT,
+                        "Partie %d x %d, graine %d : %d coups, score %d, cascade max %d, %d remélanges"
+                        + " (%d événements rejoués en %.1f ms, %.0f événements/s)",
+                        lecteur.n, lecteur.n, lecteur.graine, resultat.tours, resultat.score, resultat.cascadeMax,
+                        resultat.remelanges,
+                        lecteur.evenements, ms, lecteur.evenements / ms * 1e3));
+                }
+                return;
+            }
+            int n = Integer.parseInt(args[2]);
+            long graine = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+            int toursMax = (args.length > 4) ? Integer.parseInt(args[4]) : 200;
+            SplittableRandom alea = new SplittableRandom(graine);
+            JournalPartie journal = JournalPartie.ouvrir(Path.of(args[1]), graine);
+            ResultatPartie resultat;
+            try {
+                resultat = jouerPartie(construireJeux(n, alea), bot(), Rendu.AUCUN, alea, toursMax, null, journal);
+            } finally {
+                journal.close();
+            }
+            Ecran.afficherln(resultat.tours + " coups, score " + resultat.score + " : "
+                             + journal.evenements + " événements, " + journal.octets + " octets dans " + args[1]);
+        } catch (IOException | UncheckedIOException e) {
+            Ecran.afficherln("Erreur de journal : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Métriques du moteur, pour savoir où passe le temps pendant une partie :
+     * latence de meilleurCoup, des simulations de coup, du coup choisi par le
+     * joueur et de chaque phase de cascade (supprimerMotifs, chute, remplissage),
+     * plus quelques distributions de valeurs (bonbons supprimés par recherche de
+     * motifs, simulations par meilleurCoup, profondeur de cascade par tour).
+     *
+     * Chaque mesure est un Histogramme à compteurs répartis (LongAdder) : les
+     * threads de meilleurCoupParallele l'alimentent sans se bloquer.
+     *
+     * Désactivées (par défaut), les métriques coûtent une lecture de 'actives' par
+     * appel mesuré, sans appel à System.nanoTime : les points de mesure suivent
+     * tous le même schéma
+     *     long debutNs = Metriques.debut();
+     *     ...
+     *     if (debutNs != 0) Metriques.CHUTE.depuis(debutNs);
+     *
+     * Activées avec -Dcandycrush.metriques=<période en ms> (0 : un seul rapport, à
+     * la fin du programme), voir configurer.
+     */
+    static final class Metriques {
+
+        static volatile boolean actives;
+
+        static final Histogramme MEILLEUR_COUP = new Histogramme("meilleurCoup", "ns");
+        static final Histogramme SIMULATION = new Histogramme("simulation d'un coup", "ns");
+        static final Histogramme COUP_JOUEUR = new Histogramme("coup du joueur", "ns");
+        static final Histogramme RECHERCHE_MOTIF = new Histogramme("supprimerMotifs", "ns");
+        static final Histogramme CHUTE = new Histogramme("chute", "ns");
+        static final Histogramme REMPLISSAGE = new Histogramme("remplissage", "ns");
+        static final Histogramme BONBONS_PAR_RECHERCHE = new Histogramme("bonbons par supprimerMotifs", "");
+        static final Histogramme SIMULATIONS_PAR_COUP = new Histogramme("simulations par meilleurCoup", "");
+        static final Histogramme PROFONDEUR_CASCADE = new Histogramme("profondeur de cascade", "");
+
+        private static final Histogramme[] TOUS = {
+            MEILLEUR_COUP, SIMULATION, COUP_JOUEUR, RECHERCHE_MOTIF, CHUTE, REMPLISSAGE,
+            BONBONS_PAR_RECHERCHE, SIMULATIONS_PAR_COUP, PROFONDEUR_CASCADE
+        };
+
+        private Metriques() {
+        }
+
+        /**
+         * Début d'une mesure de durée : System.nanoTime() si les métriques sont
+         * actives, 0 sinon (la mesure est alors ignorée).
+         *
+         * Complexité temporelle : O(1).
+         */
+        static long debut() {
+            return actives ? System.nanoTime() : 0;
+        }
+
+        /** Remet toutes les mesures à zéro. Complexité temporelle : O(1). */
+        static void vider() {
+            for (Histogramme histogramme : TOUS) {
+                histogramme.vider();
+            }
+        }
+
+        /**
+         * Rapport texte des mesures non vides : nombre, moyenne, p50, p99, p999 et
+         * maximum (durées en microsecondes).
+         *
+         * Complexité temporelle : O(1) (nombre fixe de mesures et de cases).
+         */
+        static String rapport() {
+            StringBuilder rapport = new StringBuilder(String.format(Locale.ROOT,
+                "%-30s %10s %10s %10s %10s %10s %10s%n", "mesure", "nombre", "moyenne", "p50", "p99", "p999", "max"));
+            for (Histogramme histogramme : TOUS) {
+                long nombre = histogramme.nombre();
+                if (nombre == 0) {
+                    continue;
+                }
+                double echelle = histogramme.unite.equals("ns") ? 1e3 : 1; // durées en µs
+                rapport.append(String.format(Locale.ROOT, "%-30s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    histogramme.nom + (histogramme.unite.equals("ns") ? " (µs)" : ""), nombre,
+                    histogramme.moyenne() / echelle, histogramme.centile(0.50) / echelle,
+                    histogramme.centile(0.99) / echelle, histogramme.centile(0.999) / echelle,
+                    histogramme.maximum() / echelle));
+            }
+            return rapport.toString();
+        }
+
+        /**
+         * Active les métriques selon la propriété système candycrush.metriques
+         * (rien si elle est absente) : rapport affiché (Ecran) toutes les
+         * 'période' ms par un thread démon si la période est positive, et dans
+         * tous les cas à la fin du programme. Une période qui n'est pas un nombre
+         * est signalée, et le rapport n'est alors affiché qu'à la fin.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static void configurer() {
+            String periode = System.getProperty("candycrush.metriques");
+            if (periode == null) {
+                return;
+            }
+            actives = true;
+            long periodeMs = 0;
+            try {
+                periodeMs = periode.isEmpty() ? 0 : Long.parseLong(periode.trim());
+            } catch (NumberFormatException e) {
+                Ecran.afficherln("Période de métriques invalide (-Dcandycrush.metriques=" + periode
+                                 + ") : rapport seulement à la fin.");
+            }
+            if (periodeMs > 0) {
+                ScheduledExecutorService planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+                    Thread thread = new Thread(tache, "metriques");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                planificateur.scheduleAtFixedRate(() -> Ecran.afficher(rapport()),
+                    periodeMs, periodeMs, TimeUnit.MILLISECONDS);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Ecran.afficher(rapport()), "metriques-fin"));
+        }
+    }
+
+    /**
+     * Histogramme de valeurs positives (durées en ns, comptes...) à cases
+     * log-linéaires : 8 cases par puissance de 2, soit au plus 12,5 % d'erreur
+     * relative sur les centiles, de 0 à Long.MAX_VALUE en CASES cases.
+     * Compteurs LongAdder : enregistrer ne bloque jamais, même depuis de
+     * nombreux threads ; les lectures sont une photographie approximative
+     * pendant les écritures.
+     */
+    static final class Histogramme {
+
+        static final int CASES = 8 * 62;
 
-        int n = plateau.length;
+        final String nom;
+        final String unite;
+        private final LongAdder[] cases = new LongAdder[CASES];
+        private final LongAdder somme = new LongAdder();
+        private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
 
-        // copie du plateau pour ne rien modifier
-        char[][] temp = copieTableau(plateau);
+        Histogramme(String nom, String unite) {
+            this.nom = nom;
+            this.unite = unite;
+            for (int k = 0; k < CASES; k++) {
+                cases[k] = new LongAdder();
+            }
+        }
 
-        // application de la permutation sur la copie
-        permutation(x1, y1, x2, y2, temp);
+        /**
+         * Case de la valeur v : v elle-même sous 8, sinon la puissance de 2 et les
+         * 3 bits suivants.
+         *
+         * Complexité temporelle : O(1).
+         */
+        static int caseDe(long v) {
+            if (v < 8) {
+                return (int) Math.max(v, 0);
+            }
+            int exposant = 63 - Long.numberOfLeadingZeros(v);
+            return (exposant - 2) * 8 + (int) ((v >>> (exposant - 3)) & 7);
+        }
 
-        int score = 0;
+        /** Plus grande valeur de la case k. Complexité temporelle : O(1). */
+        static long borneCase(int k) {
+            if (k < 8) {
+                return k;
+            }
+            int exposant = k / 8 + 2;
+            return ((8L + k % 8 + 1) << (exposant - 3)) - 1;
+        }
 
-        // On répète jusqu'à ce qu'il n'y ait plus de bonbons supprimés
-        while (true) {
-            char[][] avant = copieTableau(temp);
-            temp = rechercheMotif(temp);
+        /** Ajoute une valeur. Complexité temporelle : O(1). */
+        void enregistrer(long valeur) {
+            cases[caseDe(valeur)].increment();
+            somme.add(valeur);
+            maximum.accumulate(valeur);
+        }
 
-            int suppr = 0;
+        /** Ajoute la durée écoulée depuis debutNs (voir Metriques.debut). Complexité : O(1). */
+        void depuis(long debutNs) {
+            enregistrer(System.nanoTime() - debutNs);
+        }
 
-            // comptage des bonbons supprimés à cette étape
-            for (int i = 0; i < n; i++) {
-                for (int j = 0; j < n; j++) {
-                    // un bonbon supprimé est un élément qui était différent de '-'
-                    // et qui devient '-'
-                    if (avant[i][j] != '-' && temp[i][j] == '-') {
-                        suppr++;
-                    }
+        long nombre() {
+            long nombre = 0;
+            for (LongAdder compteur : cases) {
+                nombre += compteur.sum();
+            }
+            return nombre;
+        }
+
+        double moyenne() {
+            long nombre = nombre();
+            return (nombre == 0) ? 0 : (double) somme.sum() / nombre;
+        }
+
+        long maximum() {
+            return maximum.get();
+        }
+
+        /**
+         * Centile q (0.5 pour la médiane, 0.999...) : borne supérieure de la case
+         * qui contient la valeur de rang ⌈q x nombre⌉, sans dépasser le maximum.
+         *
+         * Complexité temporelle : O(CASES).
+         */
+        long centile(double q) {
+            long[] comptes = new long[CASES];
+            long nombre = 0;
+            for (int k = 0; k < CASES; k++) {
+                comptes[k] = cases[k].sum();
+                nombre += comptes[k];
+            }
+            long rang = Math.max(1, (long) Math.ceil(q * nombre));
+            long cumul = 0;
+            for (int k = 0; k < CASES; k++) {
+                cumul += comptes[k];
+                if (cumul >= rang) {
+                    return Math.min(borneCase(k), maximum());
                 }
             }
+            return maximum();
+        }
 
-            // s'il n'y a plus de bonbons supprimés, la cascade est terminée
-            if (suppr == 0) break;
+        void vider() {
+            for (LongAdder compteur : cases) {
+                compteur.reset();
+            }
+            somme.reset();
+            maximum.reset();
+        }
+    }
 
-            // ajout des suppressions de cette étape au score total
-            score += suppr;
+    /** Résultat des opérations mesurées, lu une fois pour que le JIT ne les supprime pas. */
+    private static volatile long puitsBanc;
+
+    /**
+     * Banc d'essai reproductible du moteur, à lancer avec
+     * "java CandyCrush.java bench [durée en ms par mesure] [fichier.csv] [corpus]".
+     *
+     * Contrairement à analyseComplexite :
+     * - les plateaux et les remplissages sont tirés avec une graine fixe (même
+     *   plateau et mêmes cascades à chaque exécution pour une taille donnée) ;
+     * - chaque mesure est précédée d'une phase de chauffe (compilation JIT) ;
+     * - chaque fonction du moteur est mesurée séparément : construireJeux,
+     *   rechercheMotif (et rechercheMotifScalaire, case par case, et
+     *   rechercheSeries, par longueurs de plages, pour comparer),
+     *   chute, remplissage (et leurs variantes limitées aux colonnes touchées),
+     *   simulerCoup, meilleurCoup et meilleurCoupAvant (sans échéance : coût
+     *   du tri des candidats par promesse), plus copierDans comme
+     *   référence (chaque opération commence par recopier son plateau d'entrée) ;
+     *   meilleurCoup_cache mesure une réévaluation du même plateau avec CacheCoups,
+     *   instantane le décodage d'un instantané (voir Instantane) ; si les noyaux
+     *   SIMD sont chargés (voir Simd), rechercheMotif_simd, chute_simd et
+     *   chute_colonnes_simd les mesurent sur les mêmes plateaux ;
+     * - avec un corpus (fichier d'instantanés, voir lancerCorpus), les mesures
+     *   portent sur les plateaux du corpus (et leurs graines) au lieu des
+     *   plateaux tirés pour chaque taille ;
+     * - pour chaque mesure on rapporte le débit (op/s), le temps moyen (ns/op) et
+     *   l'allocation mémoire (octets/op, compteur d'allocation du thread, ou -1
+     *   si la JVM n'en fournit pas, voir compteurAllocation).
+     *
+     * Les résultats sont écrits au format CSV, sur la sortie standard et dans le
+     * fichier demandé, pour être comparés d'une version à l'autre (voir
+     * comparerBancs, lancé par la CI sur chaque pull request).
+     *
+     * @param args arguments de la ligne de commande ("bench" en premier).
+     *
+     * Complexité temporelle :
+     * - Environ 2 * durée par couple (opération, taille) : le temps d'exécution ne
+     *   dépend pas de n, c'est le nombre d'opérations mesurées qui varie.
+     */
+    public static void bancEssai(String[] args) {
+        long dureeMs = (args.length > 1) ? Long.parseLong(args[1]) : 500;
+        int[] tailles = {3, 5, 9, 15, 20, 30, 50, 100};
 
-            // On applique la chute et le remplissage pour poursuivre la cascade
-            temp = chute(temp);
-            temp = remplissage(temp);
+        StringBuilder csv = new StringBuilder("operation,n,ops_par_s,ns_par_op,octets_par_op\n");
+        Ecran.afficher(csv);
+
+        if (args.length > 3) {
+            try {
+                for (Instantane instantane : Instantane.charger(Path.of(args[3]))) {
+                    mesurerPlateau(csv, instantane.plateau(), new SplittableRandom(instantane.graine), dureeMs);
+                }
+            } catch (IOException e) {
+                Ecran.afficherln("Impossible de lire le corpus " + args[3] + " : " + e.getMessage());
+            }
+        } else {
+            for (int n : tailles) {
+                SplittableRandom alea = new SplittableRandom(42L * n);
+                mesurerPlateau(csv, plateauAleatoire(n, alea), alea, dureeMs); // contient des motifs
+            }
         }
 
-        return score;
+        if (args.length > 2) {
+            try {
+                Files.writeString(Path.of(args[2]), csv);
+            } catch (IOException e) {
+                Ecran.afficherln("Impossible d'écrire " + args[2] + " : " + e.getMessage());
+            }
+        }
     }
 
     /**
-     * Cherche le meilleur coup possible sur le plateau, c'est-à-dire la permutation
-     * de deux cases adjacentes qui maximise le score obtenu (d'après simulerCoup).
+     * Commande "java CandyCrush.java comparer <référence.csv> <mesure.csv> [tolérance en %]" :
+     * compare deux sorties de bancEssai, ligne à ligne (même opération, même n),
+     * et affiche pour chacune le rapport des temps moyens mesure / référence.
      *
-     * Pour chaque case (i, j) :
-     * - On simule la permutation avec son voisin de droite (i, j+1), si la case existe.
-     * - On simule la permutation avec son voisin du bas (i+1, j), si la case existe.
-     * - Pour chaque coup simulé, on calcule le score et on conserve les coordonnées
-     *   de celui qui donne le score maximal.
+     * Une ligne régresse si son temps moyen dépasse celui de la référence de plus
+     * de la tolérance (25 % par défaut), ou si elle alloue au moins un octet par
+     * opération alors que la référence n'allouait rien. Les lignes présentes dans un seul fichier sont signalées
+     * sans compter comme des régressions (opération ajoutée ou retirée).
      *
-     * @param plateau le plateau de jeu (char[n][n]).
+     * @param args arguments de la ligne de commande ("comparer" en premier).
      *
-     * @return un tableau d'entiers {x1, y1, x2, y2} représentant le meilleur coup,
-     *         ou {-1, -1, -1, -1} s'il n'existe aucun coup améliorant la situation
-     *         (par exemple si aucun motif ne peut être créé).
+     * @return true si aucune ligne ne régresse (et si les deux fichiers sont lus).
      *
-     * Complexité temporelle (pire cas théorique) :
-     * - On parcourt chaque case du plateau : O(n²).
-     * - Pour chaque case, on peut simuler jusqu'à 2 coups (droite et bas).
-     * - Chaque simulation de coup (simulerCoup) coûte O(n³) en pire cas théorique.
-     * ⇒ Complexité globale : O(n² * n³) = O(n⁵).
+     * Complexité temporelle : O(L), L nombre de lignes des deux fichiers.
      */
-    public static int[] meilleurCoup(char[][] plateau) {
+    public static boolean comparerBancs(String[] args) {
+        if (args.length < 3) {
+            Ecran.afficherln("Usage : comparer <référence.csv> <mesure.csv> [tolérance en %]");
+            return false;
+        }
+        double tolerance = (args.length > 3) ? Double.parseDouble(args[3]) / 100 : 0.25;
+        Map<String, double[]> reference;
+        Map<String, double[]> mesure;
+        try {
+            reference = lireBanc(Path.of(args[1]));
+            mesure = lireBanc(Path.of(args[2]));
+        } catch (IOException | NumberFormatException e) {
+            Ecran.afficherln("Impossible de lire les résultats du banc d'essai : " + e.getMessage());
+            return false;
+        }
 
-        int n = plateau.length;
+        int regressions = 0;
+        for (Map.Entry<String, double[]> ligne : mesure.entrySet()) {
+            double[] avant = reference.get(ligne.getKey());
+            if (avant == null) {
+                Ecran.afficherln(ligne.getKey() + " : absente de la référence");
+                continue;
+            }
+            double[] apres = ligne.getValue();
+            double rapport = apres[0] / avant[0];
+            boolean lente = rapport > 1 + tolerance;
+            boolean alloue = avant[1] == 0 && apres[1] >= 1; // -1 : allocation non mesurée
+            Ecran.afficherln(String.format(Locale.ROOT, "%s : %.1f -> %.1f ns/op (x%.2f), %.1f -> %.1f octets/op%s",
+                ligne.getKey(), avant[0], apres[0], rapport, avant[1], apres[1],
+                (lente || alloue) ? "  RÉGRESSION" : ""));
+            if (lente || alloue) {
+                regressions++;
+            }
+        }
+        for (String cle : reference.keySet()) {
+            if (!mesure.containsKey(cle)) {
+                Ecran.afficherln(cle + " : absente de la mesure");
+            }
+        }
+        Ecran.afficherln(regressions + " régression(s), tolérance " + Math.round(tolerance * 100) + " %");
+        return regressions == 0;
+    }
 
-        int meilleurScore = 0;
-        int[] meilleur = { -1, -1, -1, -1 };
+    /**
+     * Lit un fichier CSV de bancEssai : pour chaque clé "operation,n", le temps
+     * moyen (ns/op) et l'allocation (octets/op), dans l'ordre du fichier.
+     *
+     * Complexité temporelle : O(L), L nombre de lignes du fichier.
+     */
+    private static Map<String, double[]> lireBanc(Path fichier) throws IOException {
+        Map<String, double[]> lignes = new LinkedHashMap<>();
+        for (String ligne : Files.readAllLines(fichier)) {
+            String[] champs = ligne.split(",");
+            if (champs.length < 5 || champs[0].equals("operation")) {
+                continue; // en-tête ou ligne vide
+            }
+            lignes.put(champs[0] + "," + champs[1],
+                new double[]{ Double.parseDouble(champs[3]), Double.parseDouble(champs[4]) });
+        }
+        return lignes;
+    }
 
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
+    /**
+     * Commande "java CandyCrush.java verifier" : vérifications à graine fixe de ce
+     * que le moteur garantit, à relancer après chaque modification (la CI les
+     * lance sur chaque pull request). Chaque vérification affiche "ok", ou la
+     * première différence trouvée :
+     * - journal : une partie sans affichage rejouée avec la même graine donne le
+     *   même plateau final et le même bilan, et sa relecture (LecteurJournal)
+     *   aboutit au plateau final de la partie ;
+     * - lot : simulationLot (parallèle) et HoteParties (parties entrelacées sur
+     *   plusieurs threads) donnent, partie par partie, le bilan de la même partie
+     *   jouée seule avec jouerPartie ;
+     * - instantane : des plateaux enregistrés (Instantane.encoder, ecrire) se
+     *   relisent à l'identique (decouper, charger, plateau, lire) ;
+     * - echeance : meilleurCoupAvant avec une échéance déjà passée, ou une
+     *   recherche déjà annulée, renvoie tout de même un coup légal (adjacent et
+     *   qui forme une série) dès que le plateau en a un.
+     *
+     * @return true si toutes les vérifications passent.
+     *
+     * Complexité temporelle : quelques dizaines de parties sur de petits plateaux.
+     */
+    public static boolean verifier() {
+        boolean ok = verification("journal", CandyCrush::verifierJournal);
+        ok &= verification("lot", CandyCrush::verifierLot);
+        ok &= verification("instantane", CandyCrush::verifierInstantane);
+        ok &= verification("echeance", CandyCrush::verifierEcheance);
+        Ecran.afficherln(ok ? "Toutes les vérifications passent" : "Vérifications en échec");
+        return ok;
+    }
 
-                // Coup avec le voisin de droite
-                if (j + 1 < n) {
-                    int score = simulerCoup(i, j, i, j + 1, plateau);
-                    if (score > meilleurScore) {
-                        meilleurScore = score;
-                        meilleur = new int[]{i, j, i, j + 1};
+    /**
+     * Lance une vérification de verifier et affiche son résultat.
+     *
+     * @param test renvoie null si la vérification passe, sinon la différence trouvée.
+     *
+     * Complexité temporelle : celle de la vérification.
+     */
+    private static boolean verification(String nom, Callable<String> test) {
+        String echec;
+        try {
+            echec = test.call();
+        } catch (Exception e) {
+            echec = e.toString();
+        }
+        Ecran.afficherln(nom + " : " + (echec == null ? "ok" : "ÉCHEC, " + echec));
+        return echec == null;
+    }
+
+    /**
+     * Parties du bot sur des plateaux 5 x 5 et 9 x 9 (graines 0 à 4), jouées
+     * deux fois, la seconde avec un journal, puis rejouées depuis le journal.
+     *
+     * @return null si les trois plateaux finaux et bilans sont identiques, sinon
+     *         la première différence.
+     *
+     * Complexité temporelle : O(10 parties).
+     */
+    private static String verifierJournal() throws IOException {
+        Path fichier = Files.createTempFile("verifier", ".ccr");
+        try {
+            for (int n : new int[]{ 5, 9 }) {
+                for (long graine = 0; graine < 5; graine++) {
+                    SplittableRandom alea = new SplittableRandom(graine);
+                    char[][] plateau = construireJeux(n, alea);
+                    ResultatPartie resultat = jouerPartie(plateau, bot(), Rendu.AUCUN, alea, 100, null);
+
+                    alea = new SplittableRandom(graine);
+                    char[][] journalise = construireJeux(n, alea);
+                    ResultatPartie rejoue;
+                    try (JournalPartie journal = JournalPartie.ouvrir(fichier, graine)) {
+                        rejoue = jouerPartie(journalise, bot(), Rendu.AUCUN, alea, 100, null, journal);
+                    }
+                    String partie = "partie " + n + " x " + n + ", graine " + graine;
+                    if (!Arrays.deepEquals(plateau, journalise) || !memeBilan(resultat, rejoue)) {
+                        return partie + " : deux parties de même graine diffèrent";
                     }
-                }
 
-                // Coup avec le voisin du bas
-                if (i + 1 < n) {
-                    int score = simulerCoup(i, j, i + 1, j, plateau);
-                    if (score > meilleurScore) {
-                        meilleurScore = score;
-                        meilleur = new int[]{i, j, i + 1, j};
+                    try (LecteurJournal lecteur = LecteurJournal.ouvrir(fichier)) {
+                        rejoue = lecteur.rejouer();
+                        if (!Arrays.deepEquals(plateau, lecteur.plateau) || !memeBilan(resultat, rejoue)) {
+                            return partie + " : la relecture du journal diffère de la partie";
+                        }
                     }
                 }
             }
+            return null;
+        } finally {
+            Files.deleteIfExists(fichier);
         }
-
-        return meilleur;
     }
 
     /**
-     * Met le thread actuel en pause pendant un certain nombre de millisecondes.
+     * 24 parties 7 x 7 de graine graineCoup(11, i), jouées par simulationLot, par
+     * HoteParties (4 sessions, 3 threads) et une à une par jouerPartie.
      *
-     * @param ms durée de la pause en millisecondes.
+     * @return null si les bilans de chaque partie sont identiques, sinon la
+     *         première différence.
      *
-     * En cas d'interruption, l'état d'interruption du thread est restauré.
+     * Complexité temporelle : O(72 parties).
+     */
+    private static String verifierLot() throws Exception {
+        int parties = 24, n = 7, toursMax = 100;
+        long graine = 11;
+        BilanLot lot = simulationLot(parties, n, graine, toursMax);
+        List<CompletableFuture<ResultatPartie>> hebergees = new ArrayList<>();
+        try (HoteParties hote = new HoteParties(n, 4, 3, toursMax, bot())) {
+            for (int i = 0; i < parties; i++) {
+                hebergees.add(hote.demarrer(graineCoup(graine, i)));
+            }
+        }
+        for (int i = 0; i < parties; i++) {
+            SplittableRandom alea = new SplittableRandom(graineCoup(graine, i));
+            ResultatPartie seule = jouerPartie(construireJeux(n, alea), bot(), Rendu.AUCUN, alea, toursMax, null);
+            if (lot.scores[i] != seule.score || lot.tours[i] != seule.tours
+                || lot.cascadesMax[i] != seule.cascadeMax) {
+                return "partie " + i + " : simulationLot diffère de la partie jouée seule";
+            }
+
+            GenerateurSplitMix generateur = new GenerateurSplitMix(graineCoup(graine, i));
+            seule = jouerPartie(construireJeux(n, generateur), bot(), Rendu.AUCUN, generateur, toursMax, null);
+            if (!memeBilan(hebergees.get(i).get(), seule)) {
+                return "partie " + i + " : HoteParties diffère de la partie jouée seule";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plateaux 3 x 3 à 22 x 22 (une case vide sur 7, pour le code VIDE ; 21² cases
+     * remplissent exactement leurs mots, 22² non), encodés bout à bout dans un
+     * tampon puis écrits dans un corpus, et relus des deux façons.
      *
-     * Complexité temporelle :
-     * - L'appel à Thread.sleep(ms) est conceptuellement O(1) du point de vue
-     *   algorithmique (on ne fait pas de travail proportionnel à n).
+     * @return null si chaque plateau, sa graine et ses coups sont relus à
+     *         l'identique, sinon la première différence.
+     *
+     * Complexité temporelle : O(somme des n²).
      */
-    public static void timeSlep(int ms) {
+    private static String verifierInstantane() throws IOException {
+        int[] tailles = { 3, 5, 9, 21, 22 };
+        List<char[][]> plateaux = new ArrayList<>();
+        long[] graines = new long[tailles.length];
+        int[] coups = new int[tailles.length];
+        long total = 0;
+        for (int k = 0; k < tailles.length; k++) {
+            graines[k] = graineCoup(17, k);
+            coups[k] = 3 * k;
+            char[][] plateau = construireJeux(tailles[k], new SplittableRandom(graines[k]));
+            for (int c = 0; c < tailles[k] * tailles[k]; c += 7) {
+                plateau[c / tailles[k]][c % tailles[k]] = '-';
+            }
+            plateaux.add(plateau);
+            total += Instantane.taille(tailles[k]);
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate((int) total);
+        for (int k = 0; k < tailles.length; k++) {
+            char[][] plateau = plateaux.get(k);
+            Instantane.encoder(tampon, plateau.length, graines[k], coups[k], (l, c) -> Instantane.code(plateau[l][c]));
+        }
+        String echec = comparerInstantanes(Instantane.decouper(tampon.flip(), "tampon"), plateaux, graines, coups);
+        if (echec != null) {
+            return "tampon, " + echec;
+        }
+
+        Path fichier = Files.createTempFile("verifier", ".ccs");
         try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            Instantane.ecrire(fichier, plateaux, graines, coups);
+            echec = comparerInstantanes(Instantane.charger(fichier), plateaux, graines, coups);
+            return (echec == null) ? null : "corpus, " + echec;
+        } finally {
+            Files.deleteIfExists(fichier);
         }
     }
 
     /**
-     * Mesure expérimentalement le temps d'exécution moyen de meilleurCoup(plateau)
-     * pour une taille de plateau donnée n, sur un certain nombre d'essais.
+     * Compare des instantanés relus aux plateaux enregistrés (voir verifierInstantane).
      *
-     * @param n      taille du plateau (n x n).
-     * @param essais nombre d'essais à effectuer pour la moyenne (>= 1).
+     * Complexité temporelle : O(somme des n²).
+     */
+    private static String comparerInstantanes(List<Instantane> relus, List<char[][]> plateaux,
+                                              long[] graines, int[] coups) {
+        if (relus.size() != plateaux.size()) {
+            return relus.size() + " instantanés relus pour " + plateaux.size() + " enregistrés";
+        }
+        for (int k = 0; k < relus.size(); k++) {
+            Instantane relu = relus.get(k);
+            char[][] plateau = plateaux.get(k);
+            if (relu.n != plateau.length || relu.graine != graines[k] || relu.coups != coups[k]) {
+                return "instantané " + k + " : en-tête différent";
+            }
+            if (!Arrays.deepEquals(relu.plateau(), plateau)) {
+                return "instantané " + k + " : plateau différent";
+            }
+            for (int l = 0; l < relu.n; l++) {
+                for (int c = 0; c < relu.n; c++) {
+                    if (relu.lire(l, c) != Instantane.code(plateau[l][c])) {
+                        return "instantané " + k + " : case (" + l + ", " + c + ") différente";
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * meilleurCoupAvant sur des plateaux de départ 5 x 5, 9 x 9 et 15 x 15
+     * (graines 0 à 9), avec une échéance passée puis une annulation déjà levée :
+     * aucun candidat n'est simulé, le coup renvoyé doit être le repli (le plus
+     * prometteur).
      *
-     * @return temps moyen d'exécution en nanosecondes.
+     * @return null si chaque recherche renvoie un coup légal (ou aucun coup sur
+     *         un plateau qui n'en a pas) sans modifier le plateau, sinon la
+     *         première différence.
      *
-     * Complexité temporelle :
-     * - Appel interne à meilleurCoup : O(n⁵) en théorie.
-     * - Répété 'essais' fois → O(essais * n⁵).
-     *   Comme 'essais' est constant et petit (3 à 5), cela reste raisonnable.
+     * Complexité temporelle : O(60 recherches sans simulation), soit O(n²) chacune.
      */
-    public static long analyserComplexite(int n, int essais) {
-        long total = 0;
+    private static String verifierEcheance() {
+        for (int n : new int[]{ 5, 9, 15 }) {
+            for (long graine = 0; graine < 10; graine++) {
+                SplittableRandom alea = new SplittableRandom(graine);
+                char[][] plateau = construireJeux(n, alea);
+                char[][] avant = copieTableau(plateau);
+                String partie = "plateau " + n + " x " + n + ", graine " + graine;
+                if (!estStable(plateau)) {
+                    return partie + " : plateau de départ instable";
+                }
+                RechercheBornee[] recherches = {
+                    meilleurCoupAvant(plateau, System.nanoTime() - 1, null, alea),
+                    meilleurCoupAvant(plateau, Long.MAX_VALUE, new AtomicBoolean(true), alea)
+                };
+                for (RechercheBornee recherche : recherches) {
+                    int[] coup = recherche.meilleurCoup();
+                    if (!Arrays.deepEquals(plateau, avant)) {
+                        return partie + " : plateau modifié par la recherche";
+                    }
+                    if (recherche.couverts != 0) {
+                        return partie + " : " + recherche.couverts + " coups simulés après l'arrêt";
+                    }
+                    if (recherche.numero < 0) {
+                        if (existeCoup(plateau)) {
+                            return partie + " : aucun coup renvoyé alors que le plateau en a";
+                        }
+                        continue;
+                    }
+                    boolean dansPlateau = coup[0] >= 0 && coup[1] >= 0 && coup[2] < n && coup[3] < n;
+                    boolean adjacent = Math.abs(coup[0] - coup[2]) + Math.abs(coup[1] - coup[3]) == 1;
+                    if (!dansPlateau || !adjacent || !coupPossible(coup[0], coup[1], coup[2], coup[3], plateau)) {
+                        return partie + " : coup illégal " + Arrays.toString(coup) + " (" + recherche + ")";
+                    }
+                }
+            }
+        }
+        return null;
+    }
 
-        for (int k = 0; k < essais; k++) {
-            char[][] plateau = construireJeux(n);
-            long debut = System.nanoTime();
+    /** true si les deux bilans sont identiques. Complexité temporelle : O(1). */
+    private static boolean memeBilan(ResultatPartie a, ResultatPartie b) {
+        return a.tours == b.tours && a.score == b.score && a.etapesCascade == b.etapesCascade
+            && a.cascadeMax == b.cascadeMax && a.remelanges == b.remelanges;
+    }
 
-            meilleurCoup(plateau);
+    /**
+     * Mesure chaque opération du banc d'essai sur le plateau 'brut' (voir
+     * bancEssai) et ajoute les lignes CSV à 'csv'.
+     *
+     * @param brut plateau de départ, avec ou sans motifs ; il n'est pas modifié.
+     * @param alea générateur des remplissages mesurés.
+     *
+     * Complexité temporelle : O(dureeMs) par opération mesurée.
+     */
+    private static void mesurerPlateau(StringBuilder csv, char[][] brut, RandomGenerator alea, long dureeMs) {
+        int n = brut.length;
+        char[][] stable = stabiliser(copieTableau(brut), alea); // plateau de début de tour
+        char[][] troue = rechercheMotif(copieTableau(brut)); // cases vides à faire tomber
+        char[][] tombe = chute(copieTableau(troue));        // cases vides à remplir
+        int[] plusBasse = new int[n];                        // colonnes touchées de 'troue'
+        supprimerMotifs(copieTableau(brut), plusBasse);
+        char[][] temp = new char[n][n];
+        int[] coup = premierCoupPossible(stable);
 
-            long fin = System.nanoTime();
-            total += (fin - debut);
+        csv.append(mesurerBanc("construireJeux", n, dureeMs, () -> construireJeux(n, alea)[0][0]));
+        csv.append(mesurerBanc("copierDans", n, dureeMs, () -> copierDans(brut, temp)[0][0]));
+        csv.append(mesurerBanc("rechercheMotif", n, dureeMs, () -> rechercheMotif(copierDans(brut, temp))[0][0]));
+        csv.append(mesurerBanc("rechercheMotifScalaire", n, dureeMs,
+            () -> rechercheMotifScalaire(copierDans(brut, temp))[0][0]));
+        csv.append(mesurerBanc("rechercheSeries", n, dureeMs,
+            () -> supprimerSeries(copierDans(brut, temp), null)));
+        csv.append(mesurerBanc("chute", n, dureeMs, () -> chute(copierDans(troue, temp))[0][0]));
+        csv.append(mesurerBanc("remplissage", n, dureeMs, () -> remplissage(copierDans(tombe, temp), alea)[0][0]));
+        csv.append(mesurerBanc("chute_colonnes", n, dureeMs, () -> chute(copierDans(troue, temp), plusBasse)));
+        csv.append(mesurerBanc("remplissage_colonnes", n, dureeMs,
+            () -> remplissage(copierDans(tombe, temp), plusBasse, alea)));
+        if (Simd.disponible(n)) { // noyaux SIMD chargés, voir Simd
+            csv.append(mesurerBanc("rechercheMotif_simd", n, dureeMs,
+                () -> Simd.supprimerMotifs(copierDans(brut, temp), null)));
+            csv.append(mesurerBanc("chute_simd", n, dureeMs, () -> Simd.chute(copierDans(troue, temp), null)));
+            csv.append(mesurerBanc("chute_colonnes_simd", n, dureeMs,
+                () -> Simd.chute(copierDans(troue, temp), plusBasse)));
         }
+        csv.append(mesurerBanc("simulerCoup", n, dureeMs,
+            () -> simulerCoup(coup[0], coup[1], coup[2], coup[3], stable, temp, alea)));
+        csv.append(mesurerBanc("simulerCoupLocal", n, dureeMs,
+            () -> simulerCoupLocal(coup[0], coup[1], coup[2], coup[3], stable, temp, alea)));
+        csv.append(mesurerBanc("meilleurCoup", n, dureeMs, () -> meilleurCoup(stable, null, alea)[0]));
+        csv.append(mesurerBanc("meilleurCoupAvant", n, dureeMs,
+            () -> meilleurCoupAvant(stable, Long.MAX_VALUE, null, alea).numero));
+        CacheCoups cache = new CacheCoups(1 << 16); // même plateau, même graine : succès du cache
+        csv.append(mesurerBanc("meilleurCoup_cache", n, dureeMs,
+            () -> meilleurCoup(stable, null, new SplittableRandom(n), cache)[0]));
 
-        return total / essais; // temps moyen
+        ByteBuffer octets = ByteBuffer.allocate((int) Instantane.taille(n));
+        Instantane.encoder(octets, n, 0, 0, (l, c) -> Instantane.code(brut[l][c]));
+        Instantane instantane;
+        try {
+            instantane = Instantane.decouper(octets.flip(), "banc d'essai").get(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // instantané encodé juste au-dessus
+        }
+        csv.append(mesurerBanc("instantane", n, dureeMs, () -> instantane.plateau()[0][0]));
     }
 
     /**
-     * Effectue une analyse expérimentale de la complexité de la fonction
-     * meilleurCoup() pour différentes tailles de plateau.
-     *
-     * Elle mesure le temps d'exécution moyen de meilleurCoup(n x n)
-     * sur 3 essais pour chaque taille, puis affiche les résultats.
+     * Mesure une opération : chauffe pendant 'dureeMs', puis exécute l'opération en
+     * boucle pendant 'dureeMs' en comptant les appels, le temps et les octets alloués
+     * par le thread courant.
      *
-     * But : comparer expérimentalement avec la complexité théorique O(n⁵)
-     * en traçant un graphique (Excel / Google Sheets).
+     * @return une ligne CSV "operation,n,ops/s,ns/op,octets/op", déjà affichée.
      *
-     * Complexité temporelle :
-     *  → Mesure expérimentale sur n ∈ tailles[]
-     *  → Appel interne à meilleurCoup → O(n⁵)
-     *  → Total = O(k · n⁵) où k = nombre d’essais (petit et constant).
+     * Complexité temporelle : O(dureeMs), indépendamment du coût de l'opération.
      */
-    public static void analyseComplexite() {
-        int essais = 100;
-        int[] tailles = {3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30}; // tailles à tester
+    private static String mesurerBanc(String nom, int n, long dureeMs, IntSupplier operation) {
+        LongSupplier alloues = compteurAllocation();
+        long duree = dureeMs * 1_000_000L;
+        long puits = 0;
 
-        Ecran.afficherln("=== Analyse expérimentale de la complexité de meilleurCoup ===");
-        Ecran.afficherln("Taille (n)   Temps moyen (nanosecondes)");
+        // Chauffe : laisse le JIT compiler le chemin mesuré
+        long finChauffe = System.nanoTime() + duree;
+        while (System.nanoTime() < finChauffe) {
+            puits += operation.getAsInt();
+        }
 
-        for (int n : tailles) {
-            long temps = analyserComplexite(n, essais);
-            Ecran.afficherln(n + " x " + n + "     ->     " + temps + " ns");
+        long operations = 0;
+        long octetsAvant = (alloues == null) ? 0 : alloues.getAsLong();
+        long debut = System.nanoTime();
+        long fin;
+        do {
+            for (int k = 0; k < 16; k++) { // lot pour amortir l'appel à nanoTime
+                puits += operation.getAsInt();
+            }
+            operations += 16;
+            fin = System.nanoTime();
+        } while (fin - debut < duree);
+        long octets = (alloues == null) ? -operations : alloues.getAsLong() - octetsAvant;
+        puitsBanc = puits;
+
+        double nsParOp = (double) (fin - debut) / operations;
+        String ligne = String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f%n",
+            nom, n, 1e9 / nsParOp, nsParOp, (double) octets / operations);
+        Ecran.afficher(ligne);
+        return ligne;
+    }
+
+    /**
+     * Compteur des octets alloués par le thread courant, ou null si la JVM n'en
+     * fournit pas : getThreadAllocatedBytes vient de com.sun.management, propre
+     * à HotSpot (et aux JVM qui le reprennent). Le banc écrit alors -1 octet/op.
+     *
+     * Complexité temporelle : O(1).
+     */
+    private static LongSupplier compteurAllocation() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+                if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                    long idThread = Thread.currentThread().getId();
+                    return () -> hotspot.getThreadAllocatedBytes(idThread);
+                }
+            }
+        } catch (LinkageError e) {
+            // module jdk.management absent : pas de compteur
         }
+        return null;
+    }
 
-        Ecran.afficherln("\nCes résultats peuvent être copiés dans Excel / Google Sheets pour tracer un graphique.");
-        Ecran.afficherln("On pourra comparer la courbe obtenue à une croissance théorique en n⁵.");
+    /**
+     * Applique motifs -> chute -> remplissage jusqu'à ce que le plateau ne contienne
+     * plus aucun motif (état du plateau au début d'un tour de jeu).
+     *
+     * Complexité temporelle : O(n²) par étape de cascade.
+     */
+    private static char[][] stabiliser(char[][] plateau, RandomGenerator alea) {
+        while (supprimerMotifs(plateau) > 0) {
+            chute(plateau);
+            remplissage(plateau, alea);
+        }
+        return plateau;
+    }
+
+    /**
+     * Premier coup du parcours de meilleurCoup qui forme un motif (ou le premier
+     * coup du plateau s'il n'y en a aucun), pour mesurer simulerCoup sur un vrai coup.
+     *
+     * Complexité temporelle : O(n²).
+     */
+    private static int[] premierCoupPossible(char[][] plateau) {
+        int n = plateau.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (j + 1 < n && coupPossible(i, j, i, j + 1, plateau)) return new int[]{ i, j, i, j + 1 };
+                if (i + 1 < n && coupPossible(i, j, i + 1, j, plateau)) return new int[]{ i, j, i + 1, j };
+            }
+        }
+        return new int[]{ 0, 0, 0, 1 };
     }
 
     /**
@@ -739,13 +7354,83 @@ public class CandyCrush {
      * 3. Génère un plateau de jeu initial aléatoire via construireJeux(n).
      * 4. Lance la logique principale du jeu via jeux(plateau, auto).
      *
-     * @param args arguments de la ligne de commande (non utilisés ici).
+     * Avec l'argument "bench", lance uniquement le banc d'essai (voir bancEssai),
+     * et avec "comparer", compare deux de ses résultats (voir comparerBancs).
+     * Avec l'argument "verifier", lance les vérifications à graine fixe (voir
+     * verifier).
+     * Avec l'argument "simulation", lance un lot de parties bot sans affichage
+     * (voir lancerSimulationLot).
+     * Avec l'argument "geant", éprouve le moteur sur un plateau géant (voir
+     * lancerPlateauGeant).
+     * Avec les arguments "graine <valeur>", la partie est reproductible : même
+     * plateau initial, mêmes remplissages et mêmes coups du bot.
+     * Avec les arguments "instantane <fichier> [indice]", la partie commence sur
+     * un plateau enregistré (voir Instantane), remplissages tirés avec sa graine ;
+     * l'argument "corpus" enregistre de tels plateaux (voir lancerCorpus).
+     * Avec l'argument "journal", enregistre une partie du bot, et avec "rejouer",
+     * la rejoue sans calcul (voir lancerJournal).
+     * Avec l'option -Dcandycrush.metriques=<période en ms>, les métriques du
+     * moteur sont relevées et affichées (voir Metriques).
+     * Avec l'argument "ansi" (en dernier), l'affichage ne réécrit que les cases
+     * modifiées d'une étape à l'autre (voir RenduAnsi).
+     *
+     * @param args arguments de la ligne de commande (vides pour jouer).
      *
      * Complexité temporelle :
      * - Dominée par l'appel à jeux(plateau, auto), lui-même dominé par les
      *   appels à meilleurCoup et simulerCoup (ordre O(n⁵) théorique).
      */
     public static void main(String[] args) {
+        Metriques.configurer();
+        if (args.length > 0 && args[0].equals("bench")) {
+            bancEssai(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("comparer")) {
+            if (!comparerBancs(args)) {
+                System.exit(1); // régression : échec de la CI
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("verifier")) {
+            if (!verifier()) {
+                System.exit(1); // vérification en échec : échec de la CI
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("simulation")) {
+            lancerSimulationLot(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("hote")) {
+            lancerHote(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("geant")) {
+            lancerPlateauGeant(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("corpus")) {
+            lancerCorpus(args);
+            return;
+        }
+        if (args.length > 0 && (args[0].equals("journal") || args[0].equals("rejouer"))) {
+            lancerJournal(args);
+            return;
+        }
+
+        // Plateau de départ enregistré : "instantane <fichier> [indice]"
+        Instantane instantane = null;
+        if (args.length > 1 && args[0].equals("instantane")) {
+            int indice = (args.length > 2 && args[2].matches("\\d+")) ? Integer.parseInt(args[2]) : 0;
+            try {
+                instantane = Instantane.charger(Path.of(args[1])).get(indice);
+            } catch (IOException | IndexOutOfBoundsException e) {
+                Ecran.afficherln("Impossible de charger l'instantané " + args[1] + " : " + e.getMessage());
+                return;
+            }
+        }
+
         // 1) Demander si analyse complexe avant le jeu
         Ecran.afficherln("Souhaitez-vous lancer une analyse de complexité avant de jouer ? (o/n)");
         char rep = Clavier.saisirChar();
@@ -754,12 +7439,18 @@ public class CandyCrush {
             analyseComplexite(); //analyse avant le jeu
         }
 
-        // 2) Demande ensuite la taille du plateau
+        // 2) Demande ensuite la taille du plateau (sauf si elle vient de l'instantané)
         int n;
-        do {
-            Ecran.afficherln("Entrez la taille du plateau (n pour un plateau n x n, n >= 3) : ");
-            n = Clavier.saisirInt();
-        } while (n < 3);
+        if (instantane != null) {
+            n = instantane.n;
+            Ecran.afficherln("Plateau " + n + " x " + n + " chargé depuis " + args[1]
+                             + " (" + instantane.coups + " coups déjà joués)");
+        } else {
+            do {
+                Ecran.afficherln("Entrez la taille du plateau (n pour un plateau n x n, n >= 3) : ");
+                n = Clavier.saisirInt();
+            } while (n < 3);
+        }
 
         // 3) Choix du mode
         Ecran.afficherln("Choisissez le mode de jeu :");
@@ -770,9 +7461,20 @@ public class CandyCrush {
             choixMode = Clavier.saisirInt();
         } while (choixMode != 1 && choixMode != 2);
 
-        char[][] plateau = construireJeux(n);
+        RandomGenerator alea;
+        char[][] plateau;
+        if (instantane != null) {
+            alea = new SplittableRandom(instantane.graine);
+            plateau = instantane.plateau();
+        } else {
+            alea = (args.length > 1 && args[0].equals("graine"))
+                ? new SplittableRandom(Long.parseLong(args[1]))
+                : ThreadLocalRandom.current();
+            plateau = construireJeux(n, alea);
+        }
         boolean auto = (choixMode == 2);
-        jeux(plateau, auto);
+        Rendu rendu = Arrays.asList(args).contains("ansi") ? new RenduAnsi(500) : new RenduConsole(500);
+        jeux(plateau, auto, alea, rendu);
 }
 
 }
@@ -0,0 +1,318 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Noyaux SIMD de CandyCrush (API Vector, module jdk.incubator.vector) : détection
+ * des motifs et chute, sur les lignes char[] du plateau, une voie par colonne.
+ *
+ * Cette classe est compilée à part, car le module jdk.incubator.vector doit être
+ * ajouté à la compilation comme à l'exécution :
+ *   javac --add-modules jdk.incubator.vector NoyauxVectoriels.java
+ *   java --add-modules jdk.incubator.vector -Dcandycrush.simd=true CandyCrush.java ...
+ * CandyCrush la charge par réflexion (voir CandyCrush.Simd) et garde ses versions
+ * scalaires si elle est absente ; les deux donnent exactement le même plateau.
+ * Les signatures n'utilisent que des types du JDK, pour que CandyCrush.java n'ait
+ * pas à être compilé avec le module.
+ *
+ * Les lignes sont parcourues par blocs de VOIES colonnes, sans chargement masqué
+ * (que Java 17 ne compile pas en instructions vectorielles) : le dernier bloc
+ * d'une ligne recouvre le précédent, ce qui ne change rien car chaque opération
+ * donne le même résultat appliquée deux fois. Il faut donc n ≥ tailleMinimale().
+ *
+ * Les tests donnent des voies à -1 (vrai) ou 0 (faux), combinées bit à bit :
+ * Java 17 ne compile pas non plus les opérations logiques sur les VectorMask.
+ * v.or(v.neg()).max(-1) vaut -1 si v est non nul et 0 sinon, car v | -v est
+ * négatif sauf pour v nul ; le décalage arithmétique de 15, plus direct, n'est
+ * pas compilé en instruction vectorielle quand il est donné par un scalaire.
+ * Ces expressions sont écrites en place plutôt que dans de petites méthodes :
+ * le compilateur incorpore toujours les méthodes de l'API Vector, mais peut
+ * refuser les nôtres dans une méthode déjà grosse, et chaque vecteur passé
+ * à une méthode non incorporée est alors alloué sur le tas.
+ */
+public final class NoyauxVectoriels {
+
+    private static final VectorSpecies<Short> ESPECE = ShortVector.SPECIES_128;
+    private static final int VOIES = ESPECE.length();
+    private static final short VIDE = '-';
+    private static final short UN = 1;
+    private static final short MOINS_UN = -1;
+
+    /** Tableaux de travail d'un thread, réutilisés tant que la taille ne change pas. */
+    private static final class Travail {
+        final int n;
+        final short[] horizontal;                  // horizontal[c + 2] : série de 3 commençant en c
+        final short[][] vertical = new short[3][]; // séries de 3 commençant aux lignes l, l - 1, l - 2
+        final short[] plusBasse;
+
+        Travail(int n) {
+            this.n = n;
+            this.horizontal = new short[n + 2];
+            for (int k = 0; k < 3; k++) {
+                this.vertical[k] = new short[n];
+            }
+            this.plusBasse = new short[n];
+        }
+    }
+
+    private static final ThreadLocal<Travail> PAR_THREAD = new ThreadLocal<>();
+
+    private NoyauxVectoriels() {
+    }
+
+    private static Travail travail(int n) {
+        Travail travail = PAR_THREAD.get();
+        if (travail == null || travail.n != n) {
+            travail = new Travail(n);
+            PAR_THREAD.set(travail);
+        }
+        return travail;
+    }
+
+    /**
+     * Plus petite taille de plateau traitée par les noyaux (un bloc de VOIES
+     * colonnes plus les deux cases comparées à sa droite).
+     *
+     * Complexité temporelle : O(1).
+     */
+    public static int tailleMinimale() {
+        return VOIES + 2;
+    }
+
+    /**
+     * Supprime (remplace par '-') toutes les cases qui appartiennent à une série
+     * d'au moins 3 caractères identiques autres que '-', en ligne ou en colonne :
+     * même résultat que CandyCrush.supprimerMotifs(jeux, plusBasse).
+     *
+     * Les lignes sont traitées de haut en bas :
+     * - séries horizontales : la ligne est comparée à elle-même décalée d'une et
+     *   de deux cases, et une case est marquée si une série commence sur elle ou
+     *   sur l'une des deux cases à sa gauche ;
+     * - séries verticales : la ligne l est comparée aux lignes l + 1 et l + 2, et
+     *   une case est marquée si une série commence aux lignes l, l - 1 ou l - 2.
+     * La ligne l n'est modifiée qu'après ces comparaisons, et aucune comparaison
+     * suivante ne la relit : le plateau est traité en une seule passe.
+     *
+     * @param jeux      le plateau de jeu (char[n][n], tailleMinimale() ≤ n < 32768),
+     *                  modifié sur place.
+     * @param plusBasse tableau de taille n (ou null) qui reçoit, pour chaque
+     *                  colonne, la ligne de la plus basse case vide après la
+     *                  suppression, ou -1.
+     *
+     * @return le nombre de cases qui contenaient autre chose que '-' et qui
+     *         valent maintenant '-'.
+     *
+     * Complexité temporelle : O(n² / VOIES) opérations vectorielles.
+     */
+    public static int supprimerMotifs(char[][] jeux, int[] plusBasse) {
+        int n = jeux.length;
+        Travail travail = travail(n);
+        short[] horizontal = travail.horizontal; // horizontal[0], [1], [n] et [n + 1] restent à 0
+        short[][] vertical = travail.vertical;
+        short[] basses = travail.plusBasse;
+        for (short[] drapeaux : vertical) {
+            Arrays.fill(drapeaux, (short) 0);
+        }
+        Arrays.fill(basses, (short) -1);
+
+        int suppr = 0;
+        for (int l = 0; l < n; l++) {
+            // séries qui commencent sur la ligne l : horizontales, puis verticales
+            short[] verticalL = vertical[2];
+            vertical[2] = vertical[1];
+            vertical[1] = vertical[0];
+            vertical[0] = verticalL;
+            seriesHorizontales(jeux[l], horizontal);
+            if (l + 2 < n) {
+                seriesVerticales(jeux[l], jeux[l + 1], jeux[l + 2], verticalL);
+            } else {
+                Arrays.fill(verticalL, (short) 0);
+            }
+            suppr += vider(jeux[l], l, horizontal, vertical, (plusBasse == null) ? null : basses);
+        }
+
+        if (plusBasse != null) {
+            for (int c = 0; c < n; c++) {
+                plusBasse[c] = basses[c];
+            }
+        }
+        return suppr;
+    }
+
+    /**
+     * Drapeaux des séries horizontales d'au moins 3 cases de la ligne :
+     * horizontal[c + 2] vaut -1 si une série commence en c, 0 sinon.
+     *
+     * Complexité temporelle : O(n / VOIES) opérations vectorielles.
+     */
+    private static void seriesHorizontales(char[] ligne, short[] horizontal) {
+        int fin = ligne.length - 2 - VOIES;
+        ShortVector vide = ShortVector.broadcast(ESPECE, VIDE);
+        for (int c = 0; ; c += VOIES) {
+            c = Math.min(c, fin);
+            ShortVector x0 = ShortVector.fromCharArray(ESPECE, ligne, c);
+            ShortVector x1 = ShortVector.fromCharArray(ESPECE, ligne, c + 1);
+            ShortVector x2 = ShortVector.fromCharArray(ESPECE, ligne, c + 2);
+            ShortVector differents = x0.lanewise(VectorOperators.XOR, x1)
+                .or(x1.lanewise(VectorOperators.XOR, x2)); // 0 si les trois cases sont égales
+            ShortVector plein = x0.lanewise(VectorOperators.XOR, vide);
+            differents.or(differents.neg()).max(MOINS_UN).not()
+                .and(plein.or(plein.neg()).max(MOINS_UN))
+                .intoArray(horizontal, c + 2);
+            if (c == fin) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Drapeaux des séries verticales qui commencent sur la ligne l (lignes
+     * l, l + 1 et l + 2) : vertical[c] vaut -1 si une série commence en c.
+     *
+     * Complexité temporelle : O(n / VOIES) opérations vectorielles.
+     */
+    private static void seriesVerticales(char[] ligne, char[] ligne1, char[] ligne2, short[] vertical) {
+        int fin = ligne.length - VOIES;
+        ShortVector vide = ShortVector.broadcast(ESPECE, VIDE);
+        for (int c = 0; ; c += VOIES) {
+            c = Math.min(c, fin);
+            ShortVector x0 = ShortVector.fromCharArray(ESPECE, ligne, c);
+            ShortVector y1 = ShortVector.fromCharArray(ESPECE, ligne1, c);
+            ShortVector y2 = ShortVector.fromCharArray(ESPECE, ligne2, c);
+            ShortVector differents = x0.lanewise(VectorOperators.XOR, y1)
+                .or(y1.lanewise(VectorOperators.XOR, y2)); // 0 si les trois cases sont égales
+            ShortVector plein = x0.lanewise(VectorOperators.XOR, vide);
+            differents.or(differents.neg()).max(MOINS_UN).not()
+                .and(plein.or(plein.neg()).max(MOINS_UN))
+                .intoArray(vertical, c);
+            if (c == fin) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Vide les cases marquées de la ligne l ; une case déjà vidée par le bloc
+     * précédent n'est pas comptée deux fois. Met à jour basses s'il n'est pas null.
+     *
+     * @return le nombre de cases vidées.
+     *
+     * Complexité temporelle : O(n / VOIES) opérations vectorielles.
+     */
+    private static int vider(char[] ligne, int l, short[] horizontal, short[][] vertical, short[] basses) {
+        int fin = ligne.length - VOIES;
+        ShortVector vide = ShortVector.broadcast(ESPECE, VIDE);
+        ShortVector rang = ShortVector.broadcast(ESPECE, (short) l);
+        ShortVector retirees = ShortVector.zero(ESPECE); // -1 par case vidée, par voie
+        for (int c = 0; ; c += VOIES) {
+            c = Math.min(c, fin);
+            ShortVector marque = ShortVector.fromArray(ESPECE, horizontal, c)
+                .or(ShortVector.fromArray(ESPECE, horizontal, c + 1))
+                .or(ShortVector.fromArray(ESPECE, horizontal, c + 2))
+                .or(ShortVector.fromArray(ESPECE, vertical[0], c))
+                .or(ShortVector.fromArray(ESPECE, vertical[1], c))
+                .or(ShortVector.fromArray(ESPECE, vertical[2], c));
+            ShortVector x = ShortVector.fromCharArray(ESPECE, ligne, c);
+            ShortVector ecart = x.lanewise(VectorOperators.XOR, vide); // 0 si la case est vide
+            ShortVector plein = ecart.or(ecart.neg()).max(MOINS_UN);
+            retirees = retirees.add(marque.and(plein));
+            x.lanewise(VectorOperators.XOR, ecart.and(marque)).intoCharArray(ligne, c); // '-' si marquée
+            if (basses != null) {
+                ShortVector videApres = marque.or(plein.not());
+                ShortVector b = ShortVector.fromArray(ESPECE, basses, c);
+                b.lanewise(VectorOperators.XOR, b.lanewise(VectorOperators.XOR, rang).and(videApres))
+                    .intoArray(basses, c); // l si la case est vide après la suppression
+            }
+            if (c == fin) {
+                break;
+            }
+        }
+        return -retirees.reduceLanes(VectorOperators.ADD); // au plus n par ligne : pas de débordement
+    }
+
+    /**
+     * Fait tomber les bonbons de chaque colonne dans les cases vides ('-') en
+     * dessous d'eux : même résultat que CandyCrush.chute(jeux, plusBasse), ou que
+     * CandyCrush.chute(jeux) si plusBasse est null.
+     *
+     * Les colonnes sont les voies de vecteurs lignes : une passe remonte le
+     * plateau de la ligne la plus basse à la ligne 0, et partout où une case est
+     * vide elle prend le contenu de la case au-dessus, qui devient vide à son tour.
+     * Chaque passe fait descendre d'une case tout ce qui est au-dessus du plus haut
+     * trou de chaque colonne ; les passes s'arrêtent dès qu'aucun bonbon ne bouge,
+     * soit au plus (nombre de trous de la colonne + 1) passes.
+     * CandyCrush ne s'en sert pas pour jouer (voir CandyCrush.Simd) : avec beaucoup
+     * de trous, ces passes coûtent plus que le tassement scalaire de chaque colonne.
+     *
+     * @param jeux      le plateau de jeu (char[n][n], tailleMinimale() ≤ n < 32768),
+     *                  modifié sur place.
+     * @param plusBasse plus basse case vide de chaque colonne, ou -1 (non modifié),
+     *                  ou null pour traiter toutes les lignes de toutes les colonnes.
+     *
+     * @return le nombre de bonbons qui sont tombés.
+     *
+     * Complexité temporelle : O(n² / VOIES) par passe, une passe par trou dans la
+     * colonne qui en compte le plus (parmi les VOIES colonnes traitées ensemble).
+     */
+    public static int chute(char[][] jeux, int[] plusBasse) {
+        int n = jeux.length;
+        short[] basses = travail(n).plusBasse;
+        for (int c = 0; c < n; c++) {
+            basses[c] = (short) ((plusBasse == null) ? n - 1 : plusBasse[c]);
+        }
+        int tombes = 0;
+        int traitees = 0; // colonnes 0..traitees-1 déjà tombées
+        for (int c = 0; c < n; c += VOIES) {
+            c = Math.min(c, n - VOIES);
+            ShortVector bas = ShortVector.fromArray(ESPECE, basses, c);
+            int hauteur = bas.reduceLanes(VectorOperators.MAX);
+            if (hauteur >= 0) {
+                tombes += tomber(jeux, c, bas, hauteur, Math.max(0, traitees - c));
+            }
+            traitees = c + VOIES;
+        }
+        return tombes;
+    }
+
+    /**
+     * Passes de chute des colonnes c..c+VOIES-1, lignes 0..hauteur (voir chute).
+     * Lors de la première passe, chaque bonbon au-dessus de la plus basse case
+     * vide de sa colonne descend d'une case, et eux seuls : ce sont les bonbons
+     * qui tombent.
+     *
+     * @return le nombre de bonbons tombés dans les colonnes c+premiere..c+VOIES-1.
+     *
+     * Complexité temporelle : O(hauteur) opérations vectorielles par passe.
+     */
+    private static int tomber(char[][] jeux, int c, ShortVector bas, int hauteur, int premiere) {
+        ShortVector vide = ShortVector.broadcast(ESPECE, VIDE);
+        int total = 0;
+        boolean bouge = true;
+        for (boolean premierePasse = true; bouge; premierePasse = false) {
+            ShortVector tombees = ShortVector.zero(ESPECE);
+            ShortVector dessous = ShortVector.fromCharArray(ESPECE, jeux[hauteur], c);
+            for (int l = hauteur; l > 0; l--) {
+                ShortVector dessus = ShortVector.fromCharArray(ESPECE, jeux[l - 1], c);
+                ShortVector ecart = dessus.lanewise(VectorOperators.XOR, vide); // 0 si dessus est vide
+                ShortVector sous = dessous.lanewise(VectorOperators.XOR, vide);
+                ShortVector descend = sous.or(sous.neg()).max(MOINS_UN).not()    // dessous vide
+                    .and(ecart.or(ecart.neg()).max(MOINS_UN))                    // dessus plein
+                    .and(bas.sub((short) (l - 1)).max((short) 0).min(UN).neg()); // bas ≥ l
+                ShortVector echange = ecart.and(descend);
+                dessous.lanewise(VectorOperators.XOR, echange).intoCharArray(jeux[l], c); // reçoit dessus
+                dessous = dessus.lanewise(VectorOperators.XOR, echange);                  // devient vide
+                tombees = tombees.add(descend); // -1 par bonbon descendu, par voie
+            }
+            dessous.intoCharArray(jeux[0], c);
+            if (premierePasse) {
+                for (int k = premiere; k < VOIES; k++) {
+                    total -= tombees.lane(k);
+                }
+            }
+            bouge = tombees.reduceLanes(VectorOperators.OR) != 0;
+        }
+        return total;
+    }
+}